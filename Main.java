@@ -3,16 +3,81 @@ import java.io.*;
 import java.util.*;
 
 import utils.FastReader;
+import utils.FastWriter;
+import utils.OpLog;
+import utils.Pipeline;
+import utils.RangeTree;
 import utils.BalancedTree;
+import utils.LatencyRecorder;
+import utils.CoordinateCompressor;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.PathMatcher;
+import java.nio.file.FileSystems;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
 import java.util.stream.IntStream;
 import java.util.stream.Collectors;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Callable;
+import java.util.function.LongPredicate;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class Main {
     private interface Solver {
-        String getResult();
+        void solve(FastWriter writer);
+
+        default String getResult() {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            FastWriter writer = new FastWriter(outputStream);
+            solve(writer);
+            writer.flush();
+            return outputStream.toString();
+        }
     }
 
+    private interface Counter {
+        void update(int index, long value);
+
+        long query(int index);
+    }
+
+    private static final ThreadLocal<FastReader> READERS = ThreadLocal.withInitial(()
+            -> new FastReader(new ByteArrayInputStream(new byte[0])));
+    private static final ThreadLocal<FastWriter> WRITERS = ThreadLocal.withInitial(()
+            -> new FastWriter(new ByteArrayOutputStream()));
+
+    private static final int TESTCASES = 10;
+    private static final int CROSS_CHECKS = 5;
+    private static final int PERSISTENT_VERSIONS = 256;
+    private static final int DYNAMIC_BUDGET = 1 << 12;
+    private static final int PROFILE_SAMPLE_RATE = 8;
+    private static final long BENCH_MIN_COMPARABLE = 1000000;
+    private static final Pattern BENCH_JSON = Pattern.compile(
+            "\\{\"tree\":\"([^\"]*)\",\"testcase\":(\\d+),\"wallTimeNs\":(\\d+)");
+    private static final String[] P3374_OPCODES = {"point-update", "range-query"};
+    private static final String[] P3368_OPCODES = {"range-update", "point-query"};
+    private static final String[] P3372_OPCODES = {"range-update", "range-query"};
+    private static final String[] RANGE_TREES = {"RangeBITree", "LongSegmentTree", "LongLazySegmentTree"
+            , "LazySegmentTree", "DynamicSegmentTree", "SegmentTreeBeats"};
+    private static final String[] INVERSION_COUNTERS = {"SparseBITree", "InversionCounter"};
+    private static final String[] BALANCED_OPCODES = {"insert", "delete", "rank", "select", "pred", "succ"};
+
     private static final class LogItem {
         private final int id;
         private final String expression;
@@ -32,227 +97,452 @@ public class Main {
         }
     }
 
+    private static final class BenchItem {
+        private final String tree;
+        private final int testcase;
+        private final int operations;
+        private final long wallTime;
+        private final long allocated;
+
+        private BenchItem(String tree, int testcase, int operations, long[] wallTimes, long allocated) {
+            this.tree = tree;
+            this.testcase = testcase;
+            this.operations = operations;
+            this.allocated = allocated;
+            long[] sorted = wallTimes.clone();
+            Arrays.sort(sorted);
+            this.wallTime = sorted[sorted.length >> 1];
+        }
+
+        private String key() {
+            return tree + "," + testcase;
+        }
+
+        private double opsPerSecond() {
+            return operations * 1e9 / wallTime;
+        }
+
+        private String toCsv() {
+            return String.format("%s,%d,%d,%.1f,%d", key(), wallTime, operations, opsPerSecond(), allocated);
+        }
+
+        private String toJson() {
+            return String.format("{\"tree\":\"%s\",\"testcase\":%d,\"wallTimeNs\":%d,\"operations\":%d,"
+                    + "\"opsPerSecond\":%.1f,\"allocatedBytes\":%d}", tree, testcase, wallTime, operations
+                    , opsPerSecond(), allocated);
+        }
+    }
+
+    private static final class BatchItem {
+        private final Path path;
+        private final long bytes;
+        private final long wallTime;
+        private final Exception exception;
+
+        private BatchItem(Path path, long bytes, long wallTime, Exception exception) {
+            this.path = path;
+            this.bytes = bytes;
+            this.wallTime = wallTime;
+            this.exception = exception;
+        }
+
+        private void print() {
+            if (exception != null) {
+                System.err.println(path.getFileName() + " : " + exception);
+                return;
+            }
+            System.err.println(String.format("%-24s%14d%10.1f%10.1f", path.getFileName(), bytes
+                    , wallTime / 1e6, bytes * 1e3 / wallTime));
+        }
+    }
+
     private static final class P3374Solver implements Solver {
-        private final String result;
+        private IntBITree biTree;
+        private final FastReader reader;
+        private final boolean pipelined;
+        private final LatencyRecorder recorder;
 
-        private P3374Solver(InputStream inputStream) {
-            FastReader reader = new FastReader(inputStream);
-            int size = reader.readInt();
-            int total = reader.readInt();
-            BITree<Integer> biTree = new BITree<>(size, 0, Integer::sum);
-            StringBuilder builder = new StringBuilder();
-            IntStream.rangeClosed(1, size).forEach(i -> biTree.update(i, reader.readInt()));
-            IntStream.range(0, total).forEach(i -> {
-                switch (reader.readInt()) {
-                    case 1:
-                        biTree.update(reader.readInt(), reader.readInt());
-                        break;
-                    case 2:
-                        int sub = biTree.query(reader.readInt() - 1);
-                        int src = biTree.query(reader.readInt());
-                        builder.append(src - sub).append('\n');
-                        break;
-                    default:
-                        break;
-                }
-            });
-            result = builder.toString();
+        private P3374Solver(FastReader reader, LatencyRecorder recorder, boolean pipelined) {
+            this.recorder = recorder;
+            this.pipelined = pipelined;
+            this.reader = reader;
+        }
+
+        private void decode(FastReader reader, int[] ops, int offset) {
+            ops[offset] = reader.readInt();
+            ops[offset + 1] = reader.readInt();
+            ops[offset + 2] = reader.readInt();
+        }
+
+        private boolean execute(int[] ops, int offset, long[] results, int slot) {
+            long start = recorder.start();
+            switch (ops[offset]) {
+                case 1:
+                    biTree.update(ops[offset + 1], ops[offset + 2]);
+                    recorder.stop(0, start);
+                    return false;
+                case 2:
+                    results[slot] = biTree.rangeSum(ops[offset + 1], ops[offset + 2]);
+                    recorder.stop(1, start);
+                    return true;
+                default:
+                    return false;
+            }
         }
 
         @Override
-        public String getResult() {
-            return result;
+        public void solve(FastWriter writer) {
+            int size = reader.readInt();
+            int total = reader.readInt();
+            int[] values = new int[size];
+            reader.readInts(values, size);
+            biTree = IntBITree.fromArray(values);
+            new Pipeline(3, pipelined).run(reader, total, this::decode, this::execute, writer);
         }
     }
 
     private static final class P1908Solver implements Solver {
         private long ans;
+        private final String tree;
+        private final FastReader reader;
 
-        private P1908Solver(InputStream inputStream) {
-            FastReader reader = new FastReader(inputStream);
-            int size = reader.readInt();
-            List<Integer> array = IntStream.range(0, size).map(i -> reader.readInt())
-                    .boxed().collect(Collectors.toList());
-            AtomicInteger index = new AtomicInteger(1);
-            Map<Integer, Integer> map = array.stream().distinct().sorted()
-                    .collect(Collectors.toMap(i -> i, i -> index.getAndIncrement(), (i, j) -> i));
-            BITree<Integer> biTree = new BITree<>(map.size(), 0, Integer::sum);
-            IntStream.rangeClosed(1, array.size()).forEach(i -> {
-                ans += biTree.query(map.get(array.get(array.size() - i)) - 1);
-                biTree.update(map.get(array.get(array.size() - i)), 1);
-            });
+        private P1908Solver(String tree, FastReader reader) {
+            this.tree = tree;
+            this.reader = reader;
+        }
+
+        private void sparse(int[] values) {
+            SparseBITree biTree = new SparseBITree(1L << 32, values.length << 2);
+            for (int i = values.length - 1; i >= 0; i--) {
+                long index = (long)values[i] - Integer.MIN_VALUE + 1;
+                ans += biTree.query(index - 1);
+                biTree.update(index, 1);
+            }
         }
 
         @Override
-        public String getResult() {
-            return "" + ans;
+        public void solve(FastWriter writer) {
+            int size = reader.readInt();
+            int[] values = new int[size];
+            reader.readInts(values, size);
+            if ("SparseBITree".equals(tree)) {
+                sparse(values);
+                writer.writeLong(ans);
+                return;
+            }
+            if ("InversionCounter".equals(tree)) {
+                writer.writeLong(new InversionCounter(ForkJoinPool.commonPool()).count(values));
+                return;
+            }
+            int[] ranks = CoordinateCompressor.ranks(values, false);
+            IntBITree biTree = new IntBITree(size);
+            for (int i = size - 1; i >= 0; i--) {
+                ans += biTree.query(ranks[i] - 1);
+                biTree.update(ranks[i], 1);
+            }
+            writer.writeLong(ans);
         }
     }
 
     private static final class P3368Solver implements Solver {
-        private final String result;
+        private final String tree;
+        private RangeTree rangeTree;
+        private final FastReader reader;
+        private final boolean pipelined;
+        private final LatencyRecorder recorder;
 
-        private P3368Solver(InputStream inputStream) {
-            FastReader reader = new FastReader(inputStream);
-            int size = reader.readInt();
-            int total = reader.readInt();
-            SegmentTree<Integer> segmentTree = new SegmentTree<>(size, 0, Integer::sum, (x, y) -> x * y);
-            StringBuilder builder = new StringBuilder();
-            IntStream.rangeClosed(1, size).forEach(i -> segmentTree.insert(i, reader.readInt()));
-            IntStream.range(0, total).forEach(i -> {
-                switch (reader.readInt()) {
-                    case 1:
-                        segmentTree.update(reader.readInt(), reader.readInt(), reader.readInt());
-                        break;
-                    case 2:
-                        builder.append(segmentTree.query(reader.readInt())).append('\n');
-                        break;
-                    default:
-                        break;
-                }
-            });
-            result = builder.toString();
+        private P3368Solver(String tree, FastReader reader, LatencyRecorder recorder, boolean pipelined) {
+            this.tree = tree;
+            this.recorder = recorder;
+            this.pipelined = pipelined;
+            this.reader = reader;
+        }
+
+        private void decode(FastReader reader, int[] ops, int offset) {
+            ops[offset] = reader.readInt();
+            if (ops[offset] == 1) {
+                ops[offset + 1] = reader.readInt();
+                ops[offset + 2] = reader.readInt();
+                ops[offset + 3] = reader.readInt();
+            }
+            else {
+                ops[offset + 1] = reader.readInt();
+            }
+        }
+
+        private boolean execute(int[] ops, int offset, long[] results, int slot) {
+            long start = recorder.start();
+            switch (ops[offset]) {
+                case 1:
+                    rangeTree.update(ops[offset + 1], ops[offset + 2], ops[offset + 3]);
+                    recorder.stop(0, start);
+                    return false;
+                case 2:
+                    results[slot] = rangeTree.query(ops[offset + 1], ops[offset + 1]);
+                    recorder.stop(1, start);
+                    return true;
+                default:
+                    return false;
+            }
         }
 
         @Override
-        public String getResult() {
-            return result;
+        public void solve(FastWriter writer) {
+            int size = reader.readInt();
+            int total = reader.readInt();
+            long[] values = new long[size];
+            reader.readLongs(values, size);
+            rangeTree = rangeTree(tree, values);
+            new Pipeline(4, pipelined).run(reader, total, this::decode, this::execute, writer);
         }
     }
 
     private static final class P3372Solver implements Solver {
-        private final String result;
+        private final String tree;
+        private RangeTree rangeTree;
+        private final FastReader reader;
+        private final boolean pipelined;
+        private final LatencyRecorder recorder;
 
-        private P3372Solver(InputStream inputStream) {
-            FastReader reader = new FastReader(inputStream);
-            int size = reader.readInt();
-            int total = reader.readInt();
-            SegmentTree<Long> segmentTree = new SegmentTree<>(size, 0L, Long::sum, (x, y) -> x * y);
-            StringBuilder builder = new StringBuilder();
-            IntStream.rangeClosed(1, size).forEach(i -> segmentTree.insert(i, (long)reader.readInt()));
-            IntStream.range(0, total).forEach(i -> {
-                switch (reader.readInt()) {
-                    case 1:
-                        segmentTree.update(reader.readInt(), reader.readInt(), (long)reader.readInt());
-                        break;
-                    case 2:
-                        builder.append(segmentTree.query(reader.readInt(), reader.readInt())).append('\n');
-                        break;
-                    default:
-                        break;
-                }
-            });
-            result = builder.toString();
+        private P3372Solver(String tree, FastReader reader, LatencyRecorder recorder, boolean pipelined) {
+            this.tree = tree;
+            this.recorder = recorder;
+            this.pipelined = pipelined;
+            this.reader = reader;
+        }
+
+        private void decode(FastReader reader, int[] ops, int offset) {
+            ops[offset] = reader.readInt();
+            ops[offset + 1] = reader.readInt();
+            ops[offset + 2] = reader.readInt();
+            if (ops[offset] == 1) {
+                long value = reader.readLong();
+                ops[offset + 3] = (int)(value >>> 32);
+                ops[offset + 4] = (int)value;
+            }
+        }
+
+        private boolean execute(int[] ops, int offset, long[] results, int slot) {
+            long start = recorder.start();
+            switch (ops[offset]) {
+                case 1:
+                    long value = ((long)ops[offset + 3] << 32) | (ops[offset + 4] & 0xFFFFFFFFL);
+                    rangeTree.update(ops[offset + 1], ops[offset + 2], value);
+                    recorder.stop(0, start);
+                    return false;
+                case 2:
+                    results[slot] = rangeTree.query(ops[offset + 1], ops[offset + 2]);
+                    recorder.stop(1, start);
+                    return true;
+                default:
+                    return false;
+            }
         }
 
         @Override
-        public String getResult() {
-            return result;
+        public void solve(FastWriter writer) {
+            int size = reader.readInt();
+            int total = reader.readInt();
+            long[] values = new long[size];
+            reader.readLongs(values, size);
+            rangeTree = rangeTree(tree, values);
+            new Pipeline(5, pipelined).run(reader, total, this::decode, this::execute, writer);
         }
     }
 
     private static final class P3369Solver implements Solver {
-        private final String result;
+        private final FastReader reader;
+        private final boolean pipelined;
+        private final LatencyRecorder recorder;
+        private final BalancedTree<Integer> balancedTree;
 
-        private P3369Solver(BalancedTree<Integer> balancedTree, InputStream inputStream) {
-            FastReader reader = new FastReader(inputStream);
-            StringBuilder builder = new StringBuilder();
-            IntStream.range(0, reader.readInt()).forEach(i -> {
-                switch (reader.readInt()) {
-                    case 1:
-                        balancedTree.insert(reader.readInt());
-                        break;
-                    case 2:
-                        balancedTree.delete(reader.readInt());
-                        break;
-                    case 3:
-                        builder.append(balancedTree.rank(reader.readInt())).append('\n');
-                        break;
-                    case 4:
-                        builder.append(balancedTree.select(reader.readInt())).append('\n');
-                        break;
-                    case 5:
-                        builder.append(balancedTree.predecessor(reader.readInt())).append('\n');
-                        break;
-                    case 6:
-                        builder.append(balancedTree.successor(reader.readInt())).append('\n');
-                        break;
-                    default:
-                        break;
+        private P3369Solver(BalancedTree<Integer> balancedTree, FastReader reader
+                , LatencyRecorder recorder, boolean pipelined) {
+            this.recorder = recorder;
+            this.pipelined = pipelined;
+            this.balancedTree = balancedTree;
+            this.reader = reader;
+        }
+
+        private void decode(FastReader reader, int[] ops, int offset) {
+            ops[offset] = reader.readInt();
+            ops[offset + 1] = reader.readInt();
+        }
+
+        private boolean execute(int[] ops, int offset, long[] results, int slot) {
+            int opcode = ops[offset];
+            int value = ops[offset + 1];
+            long start = recorder.start();
+            switch (opcode) {
+                case 1:
+                    balancedTree.insert(value);
+                    break;
+                case 2:
+                    balancedTree.delete(value);
+                    break;
+                case 3:
+                    results[slot] = balancedTree.rank(value);
+                    break;
+                case 4:
+                    results[slot] = balancedTree.select(value);
+                    break;
+                case 5:
+                    results[slot] = balancedTree.predecessor(value);
+                    break;
+                case 6:
+                    results[slot] = balancedTree.successor(value);
+                    break;
+                default:
+                    return false;
+            }
+            recorder.stop(opcode - 1, start);
+            return opcode >= 3;
+        }
+
+        private void offline(FenwickOrderStatistics fenwick, int total, FastWriter writer) {
+            int[] ops = new int[total << 1];
+            int[] keys = new int[total];
+            int count = 0;
+            for (int i = 0; i < total; i++) {
+                decode(reader, ops, i << 1);
+                if (ops[i << 1] != 4) {
+                    keys[count++] = ops[(i << 1) + 1];
                 }
-            });
-            result = builder.toString();
+            }
+            fenwick.prepare(Arrays.copyOf(keys, count));
+            long[] results = new long[1];
+            for (int i = 0; i < total; i++) {
+                if (execute(ops, i << 1, results, 0)) {
+                    writer.writeLong(results[0]).newLine();
+                }
+            }
         }
 
         @Override
-        public String getResult() {
-            return result;
+        public void solve(FastWriter writer) {
+            if (balancedTree instanceof FenwickOrderStatistics) {
+                offline((FenwickOrderStatistics)balancedTree, reader.readInt(), writer);
+                return;
+            }
+            new Pipeline(2, pipelined).run(reader, reader.readInt(), this::decode, this::execute, writer);
         }
     }
 
     private static final class P6136Solver implements Solver {
         private int ans;
         private int last;
+        private final FastReader reader;
+        private final boolean pipelined;
+        private final LatencyRecorder recorder;
+        private final BalancedTree<Integer> balancedTree;
+
+        private P6136Solver(BalancedTree<Integer> balancedTree, FastReader reader
+                , LatencyRecorder recorder, boolean pipelined) {
+            if (balancedTree instanceof FenwickOrderStatistics) {
+                throw new IllegalArgumentException("FenwickOrderStatistics needs its keys up front"
+                        + ", but P6136 decodes operands online");
+            }
+            this.recorder = recorder;
+            this.pipelined = pipelined;
+            this.balancedTree = balancedTree;
+            this.reader = reader;
+        }
+
+        private void decode(FastReader reader, int[] ops, int offset) {
+            ops[offset] = reader.readInt();
+            ops[offset + 1] = reader.readInt();
+        }
 
-        private P6136Solver(BalancedTree<Integer> balancedTree, InputStream inputStream) {
+        private boolean execute(int[] ops, int offset, long[] results, int slot) {
+            int opcode = ops[offset];
+            int value = ops[offset + 1] ^ last;
+            long start = recorder.start();
+            switch (opcode) {
+                case 1:
+                    balancedTree.insert(value);
+                    break;
+                case 2:
+                    balancedTree.delete(value);
+                    break;
+                case 3:
+                    last = balancedTree.rank(value);
+                    ans ^= last;
+                    break;
+                case 4:
+                    last = balancedTree.select(value);
+                    ans ^= last;
+                    break;
+                case 5:
+                    last = balancedTree.predecessor(value);
+                    ans ^= last;
+                    break;
+                case 6:
+                    last = balancedTree.successor(value);
+                    ans ^= last;
+                    break;
+                default:
+                    return false;
+            }
+            recorder.stop(opcode - 1, start);
+            return false;
+        }
+
+        @Override
+        public void solve(FastWriter writer) {
             ans = last = 0;
-            FastReader reader = new FastReader(inputStream);
             int insert = reader.readInt();
             int total = reader.readInt();
             IntStream.range(0, insert).forEach(i -> balancedTree.insert(reader.readInt()));
-            IntStream.range(0, total).forEach(i -> {
-                switch (reader.readInt()) {
-                    case 1:
-                        balancedTree.insert(reader.readInt() ^ last);
-                        break;
-                    case 2:
-                        balancedTree.delete(reader.readInt() ^ last);
-                        break;
-                    case 3:
-                        last = balancedTree.rank(reader.readInt() ^ last);
-                        ans ^= last;
-                        break;
-                    case 4:
-                        last = balancedTree.select(reader.readInt() ^ last);
-                        ans ^= last;
-                        break;
-                    case 5:
-                        last = balancedTree.predecessor(reader.readInt() ^ last);
-                        ans ^= last;
-                        break;
-                    case 6:
-                        last = balancedTree.successor(reader.readInt() ^ last);
-                        ans ^= last;
-                        break;
-                    default:
-                        break;
-                }
-            });
+            new Pipeline(2, pipelined).run(reader, total, this::decode, this::execute, writer);
+            writer.writeInt(ans);
         }
+    }
 
-        @Override
-        public String getResult() {
-            return "" + ans;
+    private static boolean flag(String[] args, String key) {
+        return Arrays.asList(args).subList(1, args.length).contains(key);
+    }
+
+    private static String option(String[] args, String key, String fallback) {
+        for (int i = 1; i + 1 < args.length; i++) {
+            if (args[i].equals(key)) {
+                return args[i + 1];
+            }
         }
+        return fallback;
     }
 
-    private static void local() {
+    private static ArrayList<BalancedTree<Integer>> balancedTrees() {
         ArrayList<BalancedTree<Integer>> treeList = new ArrayList<>();
         Collections.addAll(treeList, new SGTree<>(), new Splay<>(), new RBTree<>()
-                , new FHQTreap<>(), new Treap<>(), new SBTree<>(), new AVLTree<>());
+                , new FHQTreap<>(), new Treap<>(), new SBTree<>(), new AVLTree<>()
+                , new FenwickOrderStatistics());
+        return treeList;
+    }
+
+    private static LatencyRecorder recorder(boolean profile, String[] opcodes) {
+        return profile ? new LatencyRecorder(PROFILE_SAMPLE_RATE, opcodes) : LatencyRecorder.disabled();
+    }
+
+    private static void local(boolean profile, boolean pipelined) {
+        ArrayList<BalancedTree<Integer>> treeList = balancedTrees();
         ArrayList<Vector<LogItem>> result = new ArrayList<>();
+        ArrayList<Vector<LatencyRecorder>> recorders = new ArrayList<>();
         treeList.forEach(i -> result.add(new Vector<>()));
+        treeList.forEach(i -> recorders.add(new Vector<>()));
         IntStream.range(0, treeList.size()).parallel().forEach(i ->
-                IntStream.rangeClosed(1, 10).parallel().forEach(j -> {
+                IntStream.rangeClosed(1, TESTCASES).parallel().forEach(j -> {
                     String expression = "";
                     try {
                         expression += "testcase " + j + ", " + treeList.get(i).getClass() + " : ";
+                        LatencyRecorder recorder = recorder(profile, BALANCED_OPCODES);
                         @SuppressWarnings("unchecked")
                         Solver solver = new P3369Solver(treeList.get(i).getClass().getConstructor().newInstance()
-                                , new FileInputStream(new File("test/test" + j + ".in")));
+                                , new FastReader(new FileInputStream(new File("test/test" + j + ".in")))
+                                , recorder, pipelined);
                         expression += solver.getResult().equals(new FastReader(
                                 (new FileInputStream("test/test" + j + ".std"))).asString());
                         result.get(i).add(new LogItem(j, expression, null));
+                        recorders.get(i).add(recorder);
                     }
                     catch (Exception e) {
                         result.get(i).add(new LogItem(j, expression, e));
@@ -263,59 +553,1069 @@ public class Main {
             i.forEach(LogItem::print);
             System.err.println();
         });
+        if (profile) {
+            IntStream.range(0, treeList.size()).forEach(i -> {
+                LatencyRecorder merged = recorder(true, BALANCED_OPCODES);
+                recorders.get(i).forEach(merged::merge);
+                System.err.println(merged.format(treeList.get(i).getClass().getSimpleName()));
+            });
+        }
+        crossCheck(pipelined);
+    }
+
+    private static byte[] randomRangeInput(long seed, int size, int total, boolean point) {
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder().append(size).append(' ').append(total).append('\n');
+        IntStream.range(0, size).forEach(i -> builder.append(random.nextInt(2001) - 1000).append(' '));
+        IntStream.range(0, total).forEach(i -> {
+            int left = random.nextInt(size) + 1;
+            int right = left + random.nextInt(size - left + 1);
+            if (random.nextBoolean()) {
+                builder.append("\n1 ").append(left).append(' ').append(right).append(' ')
+                        .append(random.nextInt(2001) - 1000);
+            }
+            else if (point) {
+                builder.append("\n2 ").append(left);
+            }
+            else {
+                builder.append("\n2 ").append(left).append(' ').append(right);
+            }
+        });
+        return builder.toString().getBytes();
+    }
+
+    private static byte[] randomArrayInput(long seed, int size, int bound) {
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder().append(size).append('\n');
+        IntStream.range(0, size).forEach(i -> builder.append(random.nextInt(bound) - bound / 2).append(' '));
+        return builder.toString().getBytes();
+    }
+
+    private static void check(int id, String name, Callable<Boolean> callable) {
+        String expression = name + " : ";
+        try {
+            expression += callable.call();
+            new LogItem(id, expression, null).print();
+        }
+        catch (Exception e) {
+            new LogItem(id, expression, e).print();
+        }
     }
 
-    private static void P3374() {
-        Solver solver = new P3374Solver(System.in);
-        System.out.print(solver.getResult());
+    private static String replay(String problem, String tree, byte[] input, boolean pipelined)
+            throws ReflectiveOperationException {
+        return solver(problem, tree, new FastReader(new ByteArrayInputStream(input)), pipelined).getResult();
     }
 
-    private static void P1908() {
-        Solver solver = new P1908Solver(System.in);
-        System.out.print(solver.getResult());
+    private static boolean concurrentCheck(long seed, int size) {
+        Random random = new Random(seed);
+        long[] values = IntStream.range(0, size).mapToLong(i -> random.nextInt(2001) - 1000).toArray();
+        ReadWriteSegmentTree<Long> segmentTree = new ReadWriteSegmentTree<>(new SegmentTree<>(size, 0L, Long::sum
+                , (x, y) -> x * y));
+        segmentTree.build(Arrays.stream(values).boxed().toArray(Long[]::new));
+        RangeBITree expect = RangeBITree.fromArray(values);
+        int[][] ranges = new int[size][];
+        for (int i = 0; i < size; i++) {
+            int left = random.nextInt(size) + 1;
+            ranges[i] = new int[]{left, left + random.nextInt(size - left + 1), random.nextInt(2001) - 1000};
+        }
+        for (int i = 0; i < size; i += 2) {
+            segmentTree.update(ranges[i][0], ranges[i][1], (long)ranges[i][2]);
+            expect.update(ranges[i][0], ranges[i][1], ranges[i][2]);
+        }
+        return IntStream.range(0, size).parallel().allMatch(i -> segmentTree.query(ranges[i][0], ranges[i][1])
+                == expect.query(ranges[i][0], ranges[i][1]));
     }
 
-    private static void P3368() {
-        Solver solver = new P3368Solver(System.in);
-        System.out.print(solver.getResult());
+    private static boolean gridCheck(long seed, int rows, int columns) {
+        Random random = new Random(seed);
+        long[] grid = IntStream.range(0, rows * columns).mapToLong(i -> random.nextInt(2001) - 1000).toArray();
+        BITree2D biTree = BITree2D.fromArray(grid, rows, columns);
+        int points = rows * columns / 4;
+        long[] xs = IntStream.range(0, points).mapToLong(i -> random.nextInt(1 << 20) - (1 << 19)).toArray();
+        long[] ys = IntStream.range(0, points).mapToLong(i -> random.nextInt(1 << 20) - (1 << 19)).toArray();
+        long[] weights = new long[points];
+        CompressedBITree2D compressed = new CompressedBITree2D(xs, ys);
+        for (int i = 0; i < rows * columns; i++) {
+            int x = random.nextInt(rows) + 1;
+            int y = random.nextInt(columns) + 1;
+            long value = random.nextInt(2001) - 1000;
+            biTree.update(x, y, value);
+            grid[(x - 1) * columns + y - 1] += value;
+            int x1 = random.nextInt(rows) + 1;
+            int x2 = x1 + random.nextInt(rows - x1 + 1);
+            int y1 = random.nextInt(columns) + 1;
+            int y2 = y1 + random.nextInt(columns - y1 + 1);
+            long expect = 0;
+            for (int u = x1; u <= x2; u++) {
+                for (int v = y1; v <= y2; v++) {
+                    expect += grid[(u - 1) * columns + v - 1];
+                }
+            }
+            if (biTree.sum(x1, y1, x2, y2) != expect) {
+                return false;
+            }
+            int point = random.nextInt(points);
+            compressed.update(xs[point], ys[point], value);
+            weights[point] += value;
+            long left = random.nextInt(1 << 20) - (1 << 19);
+            long right = left + random.nextInt(1 << 19);
+            long bottom = random.nextInt(1 << 20) - (1 << 19);
+            long top = bottom + random.nextInt(1 << 19);
+            expect = 0;
+            for (int k = 0; k < points; k++) {
+                expect += left <= xs[k] && xs[k] <= right && bottom <= ys[k] && ys[k] <= top ? weights[k] : 0;
+            }
+            if (compressed.sum(left, bottom, right, top) != expect) {
+                return false;
+            }
+        }
+        long total = compressed.sum(-(1 << 19), -(1 << 19), 1 << 19, 1 << 19);
+        try {
+            compressed.update(xs[0], 1 << 20, 1);
+            return false;
+        }
+        catch (IllegalArgumentException e) {
+            return compressed.sum(-(1 << 19), -(1 << 19), 1 << 19, 1 << 19) == total;
+        }
     }
 
-    private static void P3372() {
-        Solver solver = new P3372Solver(System.in);
-        System.out.print(solver.getResult());
+    private static long dynamicNaive(long[][] updates, int count, long left, long right) {
+        long result = 0;
+        for (int k = 0; k < count; k++) {
+            long from = Math.max(left, updates[k][0]);
+            long to = Math.min(right, updates[k][1]);
+            result += from <= to ? updates[k][2] * (to - from + 1) : 0;
+        }
+        return result;
     }
 
-    private static void P3369() {
-        Solver solver = new P3369Solver(new RBTree<>(), System.in);
-        System.out.print(solver.getResult());
+    private static boolean dynamicCheck(long seed, int total) {
+        Random random = new Random(seed);
+        long[] anchors = {Long.MIN_VALUE, -1L << 40, 0, 1L << 62, Long.MAX_VALUE - (1 << 21)};
+        DynamicSegmentTree segmentTree = new DynamicSegmentTree(Long.MIN_VALUE, Long.MAX_VALUE, DYNAMIC_BUDGET);
+        long[][] updates = new long[total][];
+        int count = 0;
+        boolean exhausted = false;
+        for (int i = 0; i < total; i++) {
+            long[] range = new long[2];
+            for (int k = 0; k < 2; k++) {
+                range[k] = anchors[random.nextInt(anchors.length)] + random.nextInt(1 << 20);
+            }
+            Arrays.sort(range);
+            long value = random.nextInt(2001) - 1000;
+            try {
+                segmentTree.update(range[0], range[1], value);
+                updates[count++] = new long[]{range[0], range[1], value};
+            }
+            catch (IllegalStateException e) {
+                exhausted = true;
+            }
+            if (random.nextInt(16) == 0) {
+                int nodes = segmentTree.nodes();
+                if (segmentTree.compact() > nodes) {
+                    return false;
+                }
+            }
+            long left = anchors[random.nextInt(anchors.length)] + random.nextInt(1 << 20);
+            long right = left + random.nextInt(1 << 20);
+            if (segmentTree.query(left, right) != dynamicNaive(updates, count, left, right)
+                    || segmentTree.query(Long.MIN_VALUE, Long.MAX_VALUE)
+                    != dynamicNaive(updates, count, Long.MIN_VALUE, Long.MAX_VALUE)) {
+                return false;
+            }
+        }
+        DynamicSegmentTree cancelled = new DynamicSegmentTree(Long.MIN_VALUE, Long.MAX_VALUE);
+        cancelled.update(-5, 5, 7);
+        cancelled.update(-5, 5, -7);
+        return exhausted && cancelled.compact() == 1 && cancelled.query(Long.MIN_VALUE, Long.MAX_VALUE) == 0;
     }
 
-    private static void P6136() {
-        Solver solver = new P6136Solver(new RBTree<>(), System.in);
-        System.out.print(solver.getResult());
+    private static boolean sparseCheck(long seed, int total) {
+        Random random = new Random(seed);
+        long[] anchors = {1, 1L << 62, Long.MAX_VALUE - (1 << 20)};
+        SparseBITree biTree = new SparseBITree(Long.MAX_VALUE);
+        long[] indexes = new long[total];
+        long[] values = new long[total];
+        for (int i = 0; i < total; i++) {
+            indexes[i] = anchors[random.nextInt(anchors.length)] + random.nextInt(1 << 20);
+            values[i] = random.nextInt(2001) - 1000;
+            biTree.update(indexes[i], values[i]);
+            long probe = anchors[random.nextInt(anchors.length)] + random.nextInt(1 << 20);
+            long expect = 0;
+            for (int k = 0; k <= i; k++) {
+                expect += indexes[k] <= probe ? values[k] : 0;
+            }
+            if (biTree.query(probe) != expect) {
+                return false;
+            }
+        }
+        return biTree.query(Long.MAX_VALUE) == Arrays.stream(values).sum();
     }
 
-    public static void main(String[] args) {
-        if (args.length == 1 && args[0].equals("-Local")) {
-            local();
+    private static boolean lazyCheck(long seed, int size) {
+        Random random = new Random(seed);
+        for (LongLazySegmentTree.Kind kind : LongLazySegmentTree.Kind.values()) {
+            long[] values = IntStream.range(0, size).mapToLong(i -> random.nextInt(21) - 10).toArray();
+            LongLazySegmentTree tree = new LongLazySegmentTree(kind, values);
+            LazySegmentTree<long[], long[]> generic = new LazySegmentTree<>(size
+                    , new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 0}
+                    , (x, y) -> new long[]{Math.min(x[0], y[0]), Math.max(x[1], y[1]), x[2] + y[2]}
+                    , (f, x, width) -> f[0] >= 0 ? new long[]{f[0] * x[0] + f[1], f[0] * x[1] + f[1]
+                            , f[0] * x[2] + f[1] * width} : new long[]{f[0] * x[1] + f[1], f[0] * x[0] + f[1]
+                            , f[0] * x[2] + f[1] * width}
+                    , (outer, inner) -> new long[]{outer[0] * inner[0], outer[0] * inner[1] + outer[1]});
+            generic.build(Arrays.stream(values).mapToObj(i -> new long[]{i, i, i}).toArray(long[][]::new));
+            for (int i = 0; i < size * 20; i++) {
+                int left = random.nextInt(size) + 1;
+                int right = left + random.nextInt(size - left + 1);
+                long value = random.nextInt(11) - 5;
+                long times = random.nextInt(5) - 2;
+                long limit = random.nextInt(11) - 5;
+                long[] range = Arrays.copyOfRange(values, left - 1, right);
+                switch (random.nextInt(6)) {
+                    case 0:
+                        tree.add(left, right, value);
+                        generic.update(left, right, new long[]{1, value});
+                        IntStream.range(left - 1, right).forEach(j -> values[j] += value);
+                        break;
+                    case 1:
+                        tree.assign(left, right, value);
+                        generic.update(left, right, new long[]{0, value});
+                        IntStream.range(left - 1, right).forEach(j -> values[j] = value);
+                        break;
+                    case 2:
+                        try {
+                            tree.update(left, right, times, value);
+                        }
+                        catch (IllegalArgumentException e) {
+                            if (times >= 0 || kind == LongLazySegmentTree.Kind.SUM) {
+                                return false;
+                            }
+                            break;
+                        }
+                        if (times < 0 && kind != LongLazySegmentTree.Kind.SUM) {
+                            return false;
+                        }
+                        generic.update(left, right, new long[]{times, value});
+                        IntStream.range(left - 1, right).forEach(j -> values[j] = values[j] * times + value);
+                        break;
+                    case 3:
+                        long expect = kind == LongLazySegmentTree.Kind.SUM ? Arrays.stream(range).sum()
+                                : kind == LongLazySegmentTree.Kind.MIN ? Arrays.stream(range).min().getAsLong()
+                                : Arrays.stream(range).max().getAsLong();
+                        long[] result = generic.query(left, right);
+                        if (tree.query(left, right) != expect || result[0] != Arrays.stream(range).min().getAsLong()
+                                || result[1] != Arrays.stream(range).max().getAsLong()
+                                || result[2] != Arrays.stream(range).sum()) {
+                            return false;
+                        }
+                        break;
+                    case 4:
+                        if (generic.maxRight(left, x -> x[0] >= limit) != maxRight(values, left, x -> x >= limit)
+                                || kind != LongLazySegmentTree.Kind.SUM && tree.maxRight(left, bound(kind, limit))
+                                != maxRight(values, left, bound(kind, limit))) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        if (generic.minLeft(right, x -> x[0] >= limit) != minLeft(values, right, x -> x >= limit)
+                                || kind != LongLazySegmentTree.Kind.SUM && tree.minLeft(right, bound(kind, limit))
+                                != minLeft(values, right, bound(kind, limit))) {
+                            return false;
+                        }
+                        break;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static LongPredicate bound(LongLazySegmentTree.Kind kind, long limit) {
+        return kind == LongLazySegmentTree.Kind.MIN ? x -> x >= limit : x -> x <= limit;
+    }
+
+    private static int maxRight(long[] values, int left, LongPredicate predicate) {
+        int right = left - 1;
+        while (right < values.length && predicate.test(values[right])) {
+            right++;
+        }
+        return right;
+    }
+
+    private static int minLeft(long[] values, int right, LongPredicate predicate) {
+        int left = right + 1;
+        while (left > 1 && predicate.test(values[left - 2])) {
+            left--;
+        }
+        return left;
+    }
+
+    private static boolean beatsCheck(long seed, int size) {
+        Random random = new Random(seed);
+        long[] values = IntStream.range(0, size).mapToLong(i -> random.nextInt(2001) - 1000).toArray();
+        SegmentTreeBeats beats = new SegmentTreeBeats(values);
+        for (int i = 0; i < size * 20; i++) {
+            int left = random.nextInt(size) + 1;
+            int right = left + random.nextInt(size - left + 1);
+            long value = random.nextInt(2001) - 1000;
+            long[] range = Arrays.copyOfRange(values, left - 1, right);
+            switch (random.nextInt(6)) {
+                case 0:
+                    beats.chmin(left, right, value);
+                    IntStream.range(left - 1, right).forEach(j -> values[j] = Math.min(values[j], value));
+                    break;
+                case 1:
+                    beats.chmax(left, right, value);
+                    IntStream.range(left - 1, right).forEach(j -> values[j] = Math.max(values[j], value));
+                    break;
+                case 2:
+                    beats.update(left, right, value);
+                    IntStream.range(left - 1, right).forEach(j -> values[j] += value);
+                    break;
+                case 3:
+                    if (beats.query(left, right) != Arrays.stream(range).sum()) {
+                        return false;
+                    }
+                    break;
+                case 4:
+                    if (beats.queryMax(left, right) != Arrays.stream(range).max().getAsLong()) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (beats.queryMin(left, right) != Arrays.stream(range).min().getAsLong()) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+    private static boolean batchCheck(long seed, int size) {
+        Random random = new Random(seed);
+        Long[] values = IntStream.range(0, size).mapToObj(i -> (long)random.nextInt(2001) - 1000).toArray(Long[]::new);
+        SegmentTree<Long> batched = new SegmentTree<>(size, 0L, Long::sum, (x, y) -> x * y);
+        SegmentTree<Long> sequential = new SegmentTree<>(size, 0L, Long::sum, (x, y) -> x * y);
+        batched.build(values);
+        sequential.build(values);
+        int total = size * 2;
+        int[] leftRanges = new int[total];
+        int[] rightRanges = new int[total];
+        Long[] deltas = new Long[total];
+        Long[] results = new Long[total];
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < total; i++) {
+                leftRanges[i] = random.nextInt(size) + 1;
+                rightRanges[i] = leftRanges[i] + random.nextInt(size - leftRanges[i] + 1);
+                deltas[i] = (long)random.nextInt(2001) - 1000;
+                sequential.update(leftRanges[i], rightRanges[i], deltas[i]);
+            }
+            batched.applyBatch(leftRanges, rightRanges, deltas, ForkJoinPool.commonPool());
+            batched.queryBatch(leftRanges, rightRanges, results, ForkJoinPool.commonPool());
+            for (int i = 0; i < total; i++) {
+                if (!results[i].equals(sequential.query(leftRanges[i], rightRanges[i]))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean persistentCheck(long seed, int size) {
+        Random random = new Random(seed);
+        int[] values = IntStream.range(0, size).map(i -> random.nextInt(size) - size / 2).toArray();
+        CoordinateCompressor compressor = new CoordinateCompressor(values, false);
+        PersistentSegmentTree counts = new PersistentSegmentTree(compressor.size());
+        for (int value : values) {
+            counts.update(counts.versions() - 1, compressor.rank(value), 1);
+        }
+        for (int i = 0; i < size; i++) {
+            int left = random.nextInt(size) + 1;
+            int right = left + random.nextInt(size - left + 1);
+            int[] sorted = Arrays.copyOfRange(values, left - 1, right);
+            Arrays.sort(sorted);
+            int rank = random.nextInt(right - left + 1) + 1;
+            if (compressor.key(counts.kth(left - 1, right, rank)) != sorted[rank - 1]) {
+                return false;
+            }
+        }
+        long[] current = new long[size];
+        PersistentSegmentTree sums = new PersistentSegmentTree(current);
+        List<long[]> snapshots = new ArrayList<>();
+        snapshots.add(current.clone());
+        for (int i = 0; i < PERSISTENT_VERSIONS; i++) {
+            int index = random.nextInt(size) + 1;
+            int value = random.nextInt(2001) - 1000;
+            int version = random.nextInt(sums.versions());
+            current = snapshots.get(version).clone();
+            current[index - 1] += value;
+            snapshots.add(current);
+            sums.update(version, index, value);
+            int left = random.nextInt(size) + 1;
+            int right = left + random.nextInt(size - left + 1);
+            int probe = random.nextInt(sums.versions());
+            if (sums.query(probe, left, right) != Arrays.stream(snapshots.get(probe), left - 1, right).sum()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void crossCheck(boolean pipelined) {
+        IntStream.rangeClosed(1, CROSS_CHECKS).forEach(j -> {
+            for (String problem : new String[]{"P3368", "P3372"}) {
+                byte[] input = randomRangeInput(j, 1000 * j, 1000 * j, problem.equals("P3368"));
+                for (String tree : RANGE_TREES) {
+                    check(j, "random " + problem + " " + j + ", " + tree, () -> replay(problem, tree, input, pipelined)
+                            .equals(replay(problem, "SegmentTree", input, pipelined)));
+                }
+            }
+            check(j, "concurrent reads " + j + ", ReadWriteSegmentTree", () -> concurrentCheck(j, 2000 * j));
+            check(j, "random sparse " + j + ", SparseBITree", () -> sparseCheck(j, 200 * j));
+            check(j, "random lazy " + j + ", LongLazySegmentTree/LazySegmentTree", () -> lazyCheck(j, 100 * j));
+            check(j, "random grid " + j + ", BITree2D/CompressedBITree2D", () -> gridCheck(j, 20 * j, 30 * j));
+            check(j, "random dynamic " + j + ", DynamicSegmentTree", () -> dynamicCheck(j, 200 * j));
+            check(j, "random beats " + j + ", SegmentTreeBeats", () -> beatsCheck(j, 200 * j));
+            check(j, "random batch " + j + ", SegmentTree", () -> batchCheck(j, 2000 * j));
+            check(j, "random persistent " + j + ", PersistentSegmentTree", () -> persistentCheck(j, 2000 * j));
+            byte[] input = randomArrayInput(j, 50000 * j, 100 * j);
+            for (String tree : INVERSION_COUNTERS) {
+                check(j, "random P1908 " + j + ", " + tree, () -> replay("P1908", tree, input, pipelined)
+                        .equals(replay("P1908", "IntBITree", input, pipelined)));
+            }
+        });
+        System.err.println();
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static Map<String, Long> readBaseline(String path) throws IOException {
+        Map<String, Long> baseline = new HashMap<>();
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        if (path.endsWith(".json")) {
+            Matcher matcher = BENCH_JSON.matcher(String.join("\n", lines));
+            while (matcher.find()) {
+                baseline.put(matcher.group(1) + "," + matcher.group(2), Long.parseLong(matcher.group(3)));
+            }
+        }
+        else {
+            for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+                String[] fields = line.split(",");
+                if (fields.length < 3 || !fields[2].matches("\\d+")) {
+                    throw new IllegalArgumentException("malformed baseline row in " + path + " : " + line);
+                }
+                baseline.put(fields[0] + "," + fields[1], Long.parseLong(fields[2]));
+            }
+        }
+        if (baseline.isEmpty()) {
+            throw new IllegalArgumentException("no benchmark rows in baseline " + path);
+        }
+        return baseline;
+    }
+
+    private static void writeBench(String path, List<BenchItem> items) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        if (path.endsWith(".json")) {
+            builder.append("[\n").append(items.stream().map(i -> "    " + i.toJson())
+                    .collect(Collectors.joining(",\n"))).append("\n]\n");
+        }
+        else {
+            builder.append("tree,testcase,wallTimeNs,operations,opsPerSecond,allocatedBytes\n");
+            items.forEach(i -> builder.append(i.toCsv()).append('\n'));
+        }
+        Files.write(Paths.get(path), builder.toString().getBytes());
+    }
+
+    private static byte[] convert(byte[] input) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        FastWriter writer = new FastWriter(outputStream);
+        OpLog.convert(new FastReader(new ByteArrayInputStream(input)), writer);
+        writer.flush();
+        return outputStream.toByteArray();
+    }
+
+    private static void convert(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("usage: -Convert <text input> <binary output>");
+        }
+        try (FileInputStream inputStream = new FileInputStream(args[1]);
+             FileChannel channel = FileChannel.open(Paths.get(args[2]), StandardOpenOption.WRITE
+                     , StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            FastWriter writer = new FastWriter(channel);
+            long count = OpLog.convert(new FastReader(inputStream), writer);
+            writer.flush();
+            System.err.println(count + " integers, " + Files.size(Paths.get(args[1])) + " -> "
+                    + Files.size(Paths.get(args[2])) + " bytes");
+        }
+    }
+
+    private static void bench(String[] args) throws Exception {
+        int warmup = Integer.parseInt(option(args, "-Warmup", "3"));
+        int runs = Integer.parseInt(option(args, "-Runs", "5"));
+        if (runs < 1 || warmup < 0) {
+            throw new IllegalArgumentException("-Runs must be at least 1 and -Warmup at least 0");
+        }
+        double threshold = Double.parseDouble(option(args, "-Threshold", "0.2"));
+        String output = option(args, "-Output", null);
+        String baseline = option(args, "-Baseline", null);
+        Map<String, Long> previous = baseline == null ? null : readBaseline(baseline);
+        boolean pipelined = flag(args, "-Pipeline");
+        boolean binary = flag(args, "-Binary");
+        boolean failed = false;
+        List<BenchItem> items = new ArrayList<>();
+        for (BalancedTree<Integer> tree : balancedTrees()) {
+            for (int j = 1; j <= TESTCASES; j++) {
+                byte[] input = Files.readAllBytes(Paths.get("test/test" + j + ".in"));
+                if (binary) {
+                    input = convert(input);
+                }
+                String expect = new FastReader(new FileInputStream("test/test" + j + ".std")).asString();
+                int operations = new FastReader(new ByteArrayInputStream(input)).readInt();
+                long[] wallTimes = new long[runs];
+                long allocated = 0;
+                for (int k = -warmup; k < runs; k++) {
+                    System.gc();
+                    long bytes = allocatedBytes();
+                    long start = System.nanoTime();
+                    @SuppressWarnings("unchecked")
+                    Solver solver = new P3369Solver(tree.getClass().getConstructor().newInstance()
+                            , new FastReader(new ByteArrayInputStream(input)), LatencyRecorder.disabled(), pipelined);
+                    String result = solver.getResult();
+                    long end = System.nanoTime();
+                    if (k == -warmup && !result.equals(expect)) {
+                        System.err.println("testcase " + j + ", " + tree.getClass() + " : false");
+                        failed = true;
+                    }
+                    if (k >= 0) {
+                        wallTimes[k] = end - start;
+                        allocated += allocatedBytes() - bytes;
+                    }
+                }
+                BenchItem item = new BenchItem(tree.getClass().getSimpleName(), j, operations
+                        , wallTimes, allocated / runs);
+                System.err.println(item.toCsv());
+                items.add(item);
+            }
+        }
+        if (output != null) {
+            writeBench(output, items);
+        }
+        if (previous != null) {
+            for (BenchItem item : items) {
+                Long before = previous.get(item.key());
+                if (before != null && before >= BENCH_MIN_COMPARABLE && item.wallTime > before * (1 + threshold)) {
+                    System.err.println("regression " + item.key() + " : " + before + "ns -> " + item.wallTime + "ns");
+                    failed = true;
+                }
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BalancedTree<Integer> balancedTree(String name) throws ReflectiveOperationException {
+        Class<?> clazz = Class.forName("trees." + name);
+        if (!BalancedTree.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException(name + " is not a balanced tree");
+        }
+        return (BalancedTree<Integer>)clazz.getConstructor().newInstance();
+    }
+
+    private static RangeTree rangeTree(String name, long[] values) {
+        switch (name) {
+            case "SegmentTree":
+                SegmentTree<Long> segmentTree = new SegmentTree<>(values.length, 0L, Long::sum, (x, y) -> x * y);
+                segmentTree.build(Arrays.stream(values).boxed().toArray(Long[]::new), ForkJoinPool.commonPool());
+                return new RangeTree() {
+                    @Override
+                    public void update(int leftRange, int rightRange, long value) {
+                        segmentTree.update(leftRange, rightRange, value);
+                    }
+
+                    @Override
+                    public long query(int leftRange, int rightRange) {
+                        return segmentTree.query(leftRange, rightRange);
+                    }
+                };
+            case "RangeBITree":
+                return RangeBITree.fromArray(values);
+            case "LongSegmentTree":
+                return LongSegmentTree.fromArray(values, true);
+            case "DynamicSegmentTree":
+                DynamicSegmentTree dynamicSegmentTree = new DynamicSegmentTree(1, values.length);
+                IntStream.rangeClosed(1, values.length).forEach(i -> dynamicSegmentTree.update(i, i, values[i - 1]));
+                return dynamicSegmentTree;
+            case "SegmentTreeBeats":
+                return new SegmentTreeBeats(values);
+            case "LongLazySegmentTree":
+                return LongLazySegmentTree.sum(values);
+            case "LazySegmentTree":
+                LazySegmentTree<Long, Long> lazySegmentTree = new LazySegmentTree<>(values.length, 0L, Long::sum
+                        , (tag, value, width) -> value + tag * width, Long::sum);
+                lazySegmentTree.build(Arrays.stream(values).boxed().toArray(Long[]::new));
+                return new RangeTree() {
+                    @Override
+                    public void update(int leftRange, int rightRange, long value) {
+                        lazySegmentTree.update(leftRange, rightRange, value);
+                    }
+
+                    @Override
+                    public long query(int leftRange, int rightRange) {
+                        return lazySegmentTree.query(leftRange, rightRange);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException(name + " is not a range tree");
+        }
+    }
+
+    private static String defaultTree(String problem) {
+        switch (problem) {
+            case "P3369":
+            case "P6136":
+                return "RBTree";
+            case "P3368":
+            case "P3372":
+                return "SegmentTree";
+            case "P1908":
+                return "IntBITree";
+            default:
+                return null;
+        }
+    }
+
+    private static Solver solver(String problem, String tree, FastReader reader, boolean pipelined)
+            throws ReflectiveOperationException {
+        LatencyRecorder recorder = LatencyRecorder.disabled();
+        switch (problem) {
+            case "P3374":
+                return new P3374Solver(reader, recorder, pipelined);
+            case "P1908":
+                return new P1908Solver(tree, reader);
+            case "P3368":
+                return new P3368Solver(tree, reader, recorder, pipelined);
+            case "P3372":
+                return new P3372Solver(tree, reader, recorder, pipelined);
+            case "P3369":
+                return new P3369Solver(balancedTree(tree), reader, recorder, pipelined);
+            case "P6136":
+                return new P6136Solver(balancedTree(tree), reader, recorder, pipelined);
+            default:
+                throw new IllegalArgumentException("unknown problem " + problem);
+        }
+    }
+
+    private static void handle(Socket socket, boolean pipelined) {
+        try (Socket client = socket) {
+            FastReader reader = new FastReader(client.getInputStream());
+            FastWriter writer = new FastWriter(client.getOutputStream());
+            try {
+                String[] header = reader.readLine().trim().split("\\s+");
+                String tree = header.length > 1 ? header[1] : defaultTree(header[0]);
+                String problem = header[0];
+                reader.probe();
+                solver(problem, tree, reader, pipelined).solve(writer);
+            }
+            catch (Exception e) {
+                writer.writeString("error: " + e).newLine();
+            }
+            writer.flush();
+            client.shutdownOutput();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void serve(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2 || !args[1].matches("\\d+")) {
+            throw new IllegalArgumentException("usage: -Serve <port>, unix domain sockets are not available on Java 8");
+        }
+        int threads = Integer.parseInt(option(args, "-Threads", "" + Runtime.getRuntime().availableProcessors()));
+        int queue = Integer.parseInt(option(args, "-Queue", "" + 4 * threads));
+        boolean pipelined = flag(args, "-Pipeline");
+        Semaphore permits = new Semaphore(threads + queue);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int port = Integer.parseInt(args[1]);
+        try (ServerSocket server = new ServerSocket(port, queue, InetAddress.getLoopbackAddress())) {
+            System.err.println("listening on " + server.getLocalSocketAddress());
+            while (!server.isClosed()) {
+                permits.acquire();
+                Socket socket = server.accept();
+                executor.execute(() -> {
+                    try {
+                        handle(socket, pipelined);
+                    }
+                    finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void client(String[] args) throws IOException, InterruptedException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1]))) {
+            String header = String.join(" ", Arrays.asList(args).subList(2, args.length)) + "\n";
+            Thread sender = new Thread(() -> {
+                try (InputStream inputStream = new FileInputStream(FileDescriptor.in)) {
+                    OutputStream outputStream = socket.getOutputStream();
+                    outputStream.write(header.getBytes());
+                    byte[] buffer = new byte[1 << 16];
+                    for (int length = inputStream.read(buffer); length != -1; length = inputStream.read(buffer)) {
+                        outputStream.write(buffer, 0, length);
+                    }
+                    socket.shutdownOutput();
+                }
+                catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            sender.start();
+            InputStream inputStream = socket.getInputStream();
+            byte[] buffer = new byte[1 << 16];
+            for (int length = inputStream.read(buffer); length != -1; length = inputStream.read(buffer)) {
+                System.out.write(buffer, 0, length);
+            }
+            System.out.flush();
+            sender.join();
+        }
+    }
+
+    private static List<Path> batchFiles(String pattern, String glob) throws IOException {
+        Path path = Paths.get(pattern);
+        Path parent = path.getParent() == null ? Paths.get(".") : path.getParent();
+        if (Files.isDirectory(path)) {
+            parent = path;
+        }
+        else {
+            glob = path.getFileName().toString();
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> stream = Files.list(parent)) {
+            return stream.filter(Files::isRegularFile).filter(i -> matcher.matches(i.getFileName()))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static BatchItem batchFile(Path input, Path output, String problem, String tree, boolean pipelined) {
+        long start = System.nanoTime();
+        try (FileInputStream inputStream = new FileInputStream(input.toFile());
+             FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE
+                     , StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            FastReader reader = READERS.get().reset(inputStream);
+            FastWriter writer = WRITERS.get().reset(channel);
+            solver(problem, tree, reader, pipelined).solve(writer);
+            writer.flush();
+            return new BatchItem(input, Files.size(input), System.nanoTime() - start, null);
+        }
+        catch (Exception e) {
+            return new BatchItem(input, 0, System.nanoTime() - start, e);
+        }
+    }
+
+    private static void batch(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("usage: -Batch <dir|glob> -Solver <problem> [-Tree <tree>] [-Pattern <glob>]");
+        }
+        String problem = option(args, "-Solver", "P3369");
+        String tree = option(args, "-Tree", defaultTree(problem));
+        String directory = option(args, "-Output", null);
+        boolean pipelined = flag(args, "-Pipeline");
+        List<Path> files = batchFiles(args[1], option(args, "-Pattern", "*.in"));
+        Map<Path, Path> outputs = new LinkedHashMap<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString().replaceFirst("\\.[^.]*$", "") + ".out";
+            Path output = (directory == null ? file.resolveSibling(name) : Paths.get(directory, name)).normalize();
+            if (outputs.containsValue(output) || files.contains(output)) {
+                throw new IllegalArgumentException(file + " would write " + output
+                        + ", which collides with another file of this batch");
+            }
+            outputs.put(file, output);
+        }
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        List<ForkJoinTask<BatchItem>> tasks = files.stream().map(i -> pool.submit(()
+                -> batchFile(i, outputs.get(i), problem, tree, pipelined))).collect(Collectors.toList());
+        List<BatchItem> items = tasks.stream().map(ForkJoinTask::join).collect(Collectors.toList());
+        long wallTime = System.nanoTime() - start;
+        pool.shutdown();
+        System.err.println(String.format("%-24s%14s%10s%10s", "file", "bytes", "ms", "MB/s"));
+        items.forEach(BatchItem::print);
+        long bytes = items.stream().mapToLong(i -> i.bytes).sum();
+        long failed = items.stream().filter(i -> i.exception != null).count();
+        System.err.println(String.format("%d files, %d failed, %d bytes in %.1f ms, %.1f MB/s", items.size(), failed
+                , bytes, wallTime / 1e6, bytes * 1e3 / wallTime));
+        if (failed != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Counter counter(String name, int size, int stripes) {
+        switch (name) {
+            case "BITree": {
+                BITree<Long> biTree = new BITree<>(size, 0L, Long::sum);
+                return new Counter() {
+                    @Override
+                    public synchronized void update(int index, long value) {
+                        biTree.update(index, value);
+                    }
+
+                    @Override
+                    public synchronized long query(int index) {
+                        return biTree.query(index);
+                    }
+                };
+            }
+            case "ConcurrentBITree": {
+                ConcurrentBITree biTree = new ConcurrentBITree(size);
+                return new Counter() {
+                    @Override
+                    public void update(int index, long value) {
+                        biTree.update(index, value);
+                    }
+
+                    @Override
+                    public long query(int index) {
+                        return biTree.query(index);
+                    }
+                };
+            }
+            case "StripedBITree": {
+                ConcurrentBITree biTree = new ConcurrentBITree(size, stripes);
+                return new Counter() {
+                    @Override
+                    public void update(int index, long value) {
+                        biTree.update(index, value);
+                    }
+
+                    @Override
+                    public long query(int index) {
+                        return biTree.query(index);
+                    }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("unknown counter " + name);
+        }
+    }
+
+    private static long contend(Counter counter, int size, int threads, int operations, int queryRatio)
+            throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger regressions = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long last = 0;
+                ready.countDown();
+                try {
+                    start.await();
+                    for (int j = 0; j < operations; j++) {
+                        if (queryRatio != 0 && j % queryRatio == 0) {
+                            long total = counter.query(size);
+                            if (total < last) {
+                                regressions.incrementAndGet();
+                            }
+                            last = total;
+                        }
+                        else {
+                            counter.update(random.nextInt(size) + 1, 1);
+                        }
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long wallTime = System.nanoTime() - begin;
+        int queries = queryRatio == 0 ? 0 : (operations + queryRatio - 1) / queryRatio;
+        long updates = (long)threads * (operations - queries);
+        if (counter.query(size) != updates || regressions.get() != 0) {
+            throw new IllegalStateException("lost updates or non-monotonic prefix sums");
+        }
+        return wallTime;
+    }
+
+    private static void contend(String[] args) throws InterruptedException {
+        int size = Integer.parseInt(option(args, "-Size", "1048576"));
+        int operations = Integer.parseInt(option(args, "-Operations", "1048576"));
+        int queryRatio = Integer.parseInt(option(args, "-QueryRatio", "16"));
+        int stripes = Integer.parseInt(option(args, "-Stripes"
+                , String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int[] threads = Arrays.stream(option(args, "-Threads", "1,2,4,8,16,32").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        String[] counters = {"BITree", "ConcurrentBITree", "StripedBITree"};
+        System.err.println(String.format("%-20s%10s%10s%10s", "counter", "threads", "ms", "Mops/s"));
+        for (String name : counters) {
+            for (int thread : threads) {
+                long wallTime = contend(counter(name, size, stripes), size, thread, operations, queryRatio);
+                System.err.println(String.format("%-20s%10d%10.1f%10.2f", name, thread, wallTime / 1e6
+                        , (double)thread * operations * 1e3 / wallTime));
+            }
+        }
+    }
+
+    private static void grid(String[] args) {
+        int rows = Integer.parseInt(option(args, "-Rows", "1024"));
+        int columns = Integer.parseInt(option(args, "-Columns", "1024"));
+        int operations = Integer.parseInt(option(args, "-Operations", "1048576"));
+        Random random = new Random(0);
+        int[] xs = IntStream.range(0, operations).map(i -> random.nextInt(rows) + 1).toArray();
+        int[] ys = IntStream.range(0, operations).map(i -> random.nextInt(columns) + 1).toArray();
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        List<BITree<Long>> nested = new ArrayList<>();
+        IntStream.range(0, rows).forEach(i -> nested.add(new BITree<>(columns, 0L, Long::sum)));
+        long checksum = 0;
+        for (int k = 0; k < operations; k++) {
+            for (int i = xs[k]; i <= rows; i += i & -i) {
+                nested.get(i - 1).update(ys[k], 1L);
+            }
+            for (int i = xs[(k + 1) % operations]; i > 0; i -= i & -i) {
+                checksum += nested.get(i - 1).query(ys[(k + 1) % operations]);
+            }
+        }
+        long nestedTime = System.nanoTime() - start;
+        long nestedBytes = allocatedBytes() - bytes;
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        BITree2D biTree = new BITree2D(rows, columns);
+        for (int k = 0; k < operations; k++) {
+            biTree.update(xs[k], ys[k], 1);
+            checksum -= biTree.query(xs[(k + 1) % operations], ys[(k + 1) % operations]);
+        }
+        long flatTime = System.nanoTime() - start;
+        long flatBytes = allocatedBytes() - bytes;
+        System.err.println(String.format("%-16s%14s%10s", "tree", "allocated", "ms"));
+        System.err.println(String.format("%-16s%14d%10.1f", "BITree<Long>[]", nestedBytes, nestedTime / 1e6));
+        System.err.println(String.format("%-16s%14d%10.1f", "BITree2D", flatBytes, flatTime / 1e6));
+        if (checksum != 0) {
+            throw new IllegalStateException("BITree2D disagrees with nested BITree<Long>");
+        }
+    }
+
+    private static FastReader stdin() {
+        return new FastReader(new FileInputStream(FileDescriptor.in));
+    }
+
+    private static FastWriter stdout() {
+        return new FastWriter(new FileOutputStream(FileDescriptor.out));
+    }
+
+    private static void report(Solver solver, LatencyRecorder recorder, boolean profile, String title) {
+        FastWriter writer = stdout();
+        solver.solve(writer);
+        writer.flush();
+        if (profile) {
+            System.err.print(recorder.format(title));
+        }
+    }
+
+    private static void P3374(boolean profile, boolean pipelined) {
+        LatencyRecorder recorder = recorder(profile, P3374_OPCODES);
+        report(new P3374Solver(stdin(), recorder, pipelined), recorder, profile, "IntBITree");
+    }
+
+    private static void P1908(String tree) {
+        FastWriter writer = stdout();
+        new P1908Solver(tree, stdin()).solve(writer);
+        writer.flush();
+    }
+
+    private static void P3368(boolean profile, boolean pipelined, String tree) {
+        LatencyRecorder recorder = recorder(profile, P3368_OPCODES);
+        report(new P3368Solver(tree, stdin(), recorder, pipelined), recorder, profile, tree);
+    }
+
+    private static void P3372(boolean profile, boolean pipelined, String tree) {
+        LatencyRecorder recorder = recorder(profile, P3372_OPCODES);
+        report(new P3372Solver(tree, stdin(), recorder, pipelined), recorder, profile, tree);
+    }
+
+    private static void P3369(boolean profile, boolean pipelined, String tree) throws ReflectiveOperationException {
+        LatencyRecorder recorder = recorder(profile, BALANCED_OPCODES);
+        report(new P3369Solver(balancedTree(tree), stdin(), recorder, pipelined), recorder, profile, tree);
+    }
+
+    private static void P6136(boolean profile, boolean pipelined, String tree) throws ReflectiveOperationException {
+        LatencyRecorder recorder = recorder(profile, BALANCED_OPCODES);
+        report(new P6136Solver(balancedTree(tree), stdin(), recorder, pipelined), recorder, profile, tree);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            return;
+        }
+        boolean profile = flag(args, "-Profile");
+        boolean pipelined = flag(args, "-Pipeline");
+        String tree = option(args, "-Tree", defaultTree(args[0].substring(1)));
+        if (args[0].equals("-Local")) {
+            local(profile, pipelined);
+        }
+        else if (args[0].equals("-Bench")) {
+            bench(args);
+        }
+        else if (args[0].equals("-Convert")) {
+            convert(args);
+        }
+        else if (args[0].equals("-Batch")) {
+            batch(args);
+        }
+        else if (args[0].equals("-Grid")) {
+            grid(args);
+        }
+        else if (args[0].equals("-Contend")) {
+            contend(args);
+        }
+        else if (args[0].equals("-Serve")) {
+            serve(args);
+        }
+        else if (args[0].equals("-Client")) {
+            client(args);
         }
-        else if (args.length == 1 && args[0].equals("-P3374")) {
-            P3374();
+        else if (args[0].equals("-P3374")) {
+            P3374(profile, pipelined);
         }
-        else if (args.length == 1 && args[0].equals("-P1908")) {
-            P1908();
+        else if (args[0].equals("-P1908")) {
+            P1908(tree);
         }
-        else if (args.length == 1 && args[0].equals("-P3368")) {
-            P3368();
+        else if (args[0].equals("-P3368")) {
+            P3368(profile, pipelined, tree);
         }
-        else if (args.length == 1 && args[0].equals("-P3372")) {
-            P3372();
+        else if (args[0].equals("-P3372")) {
+            P3372(profile, pipelined, tree);
         }
-        else if (args.length == 1 && args[0].equals("-P3369")) {
-            P3369();
+        else if (args[0].equals("-P3369")) {
+            P3369(profile, pipelined, tree);
         }
-        else if (args.length == 1 && args[0].equals("-P6136")) {
-            P6136();
+        else if (args[0].equals("-P6136")) {
+            P6136(profile, pipelined, tree);
         }
     }
 }
\ No newline at end of file
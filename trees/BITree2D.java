@@ -0,0 +1,71 @@
+package trees;
+
+public class BITree2D {
+    private final int rows;
+    private final int columns;
+    private final long[] tree;
+
+    public BITree2D(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.tree = new long[rows * columns];
+    }
+
+    public static BITree2D fromArray(long[] values, int rows, int columns) {
+        assert values.length == rows * columns;
+        BITree2D biTree = new BITree2D(rows, columns);
+        long[] tree = biTree.tree;
+        System.arraycopy(values, 0, tree, 0, values.length);
+        for (int x = 0; x < rows; x++) {
+            for (int y = 1; y <= columns; y++) {
+                int parent = y + (y & -y);
+                if (parent <= columns) {
+                    tree[x * columns + parent - 1] += tree[x * columns + y - 1];
+                }
+            }
+        }
+        for (int x = 1; x <= rows; x++) {
+            int parent = x + (x & -x);
+            if (parent <= rows) {
+                for (int y = 0; y < columns; y++) {
+                    tree[(parent - 1) * columns + y] += tree[(x - 1) * columns + y];
+                }
+            }
+        }
+        return biTree;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public void update(int x, int y, long value) {
+        assert x > 0 && y > 0;
+        for (int i = x; i <= rows; i += i & -i) {
+            int row = (i - 1) * columns - 1;
+            for (int j = y; j <= columns; j += j & -j) {
+                tree[row + j] += value;
+            }
+        }
+    }
+
+    public long query(int x, int y) {
+        assert x <= rows && y <= columns;
+        long result = 0;
+        for (int i = x; i > 0; i -= i & -i) {
+            int row = (i - 1) * columns - 1;
+            for (int j = y; j > 0; j -= j & -j) {
+                result += tree[row + j];
+            }
+        }
+        return result;
+    }
+
+    public long sum(int x1, int y1, int x2, int y2) {
+        return query(x2, y2) - query(x1 - 1, y2) - query(x2, y1 - 1) + query(x1 - 1, y1 - 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package trees;
+
+import java.util.Arrays;
+
+public class CompressedBITree2D {
+    private final long[] rows;
+    private final int[] offsets;
+    private final long[] columns;
+    private final long[] tree;
+
+    public CompressedBITree2D(long[] xs, long[] ys) {
+        assert xs.length == ys.length;
+        rows = unique(xs.clone(), xs.length);
+        int[] counts = new int[rows.length + 1];
+        for (long x : xs) {
+            for (int i = rank(rows, 0, rows.length, x) + 1; i <= rows.length; i += i & -i) {
+                counts[i]++;
+            }
+        }
+        offsets = new int[rows.length + 1];
+        for (int i = 1; i <= rows.length; i++) {
+            offsets[i] = offsets[i - 1] + counts[i];
+        }
+        long[] cells = new long[offsets[rows.length]];
+        int[] fill = Arrays.copyOf(offsets, rows.length);
+        for (int k = 0; k < xs.length; k++) {
+            for (int i = rank(rows, 0, rows.length, xs[k]) + 1; i <= rows.length; i += i & -i) {
+                cells[fill[i - 1]++] = ys[k];
+            }
+        }
+        int length = 0;
+        for (int i = 0; i < rows.length; i++) {
+            Arrays.sort(cells, offsets[i], offsets[i + 1]);
+            int start = length;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                if (k == offsets[i] || cells[k] != cells[k - 1]) {
+                    cells[length++] = cells[k];
+                }
+            }
+            offsets[i] = start;
+        }
+        offsets[rows.length] = length;
+        columns = Arrays.copyOf(cells, length);
+        tree = new long[length];
+    }
+
+    private static long[] unique(long[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (i == 0 || values[i] != values[i - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static int rank(long[] values, int from, int to, long key) {
+        int index = Arrays.binarySearch(values, from, to, key);
+        return index < 0 ? -1 : index - from;
+    }
+
+    private static int countNotGreater(long[] values, int from, int to, long key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low - from;
+    }
+
+    public void update(long x, long y, long value) {
+        int row = rank(rows, 0, rows.length, x);
+        if (row < 0 || rank(columns, offsets[row], offsets[row + 1], y) < 0) {
+            throw new IllegalArgumentException("(" + x + ", " + y + ") is not a registered point");
+        }
+        for (int i = row + 1; i <= rows.length; i += i & -i) {
+            int from = offsets[i - 1];
+            int size = offsets[i] - from;
+            for (int j = rank(columns, from, from + size, y) + 1; j <= size; j += j & -j) {
+                tree[from + j - 1] += value;
+            }
+        }
+    }
+
+    public long query(long x, long y) {
+        long result = 0;
+        for (int i = countNotGreater(rows, 0, rows.length, x); i > 0; i -= i & -i) {
+            int from = offsets[i - 1];
+            for (int j = countNotGreater(columns, from, offsets[i], y); j > 0; j -= j & -j) {
+                result += tree[from + j - 1];
+            }
+        }
+        return result;
+    }
+
+    public long sum(long x1, long y1, long x2, long y2) {
+        return query(x2, y2) - query(x1 - 1, y2) - query(x2, y1 - 1) + query(x1 - 1, y1 - 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package trees;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class ConcurrentBITree {
+    private final int size;
+    private final AtomicLongArray[] stripes;
+
+    public ConcurrentBITree(int size) {
+        this(size, 1);
+    }
+
+    public ConcurrentBITree(int size, int stripes) {
+        assert stripes > 0;
+        this.size = size;
+        int count = Math.max(1, Integer.highestOneBit(stripes - 1) << 1);
+        this.stripes = new AtomicLongArray[count];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new AtomicLongArray(size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int stripes() {
+        return stripes.length;
+    }
+
+    private AtomicLongArray stripe() {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return stripes[(int)(hash >>> 32) & (stripes.length - 1)];
+    }
+
+    public void update(int index, long value) {
+        assert index > 0;
+        AtomicLongArray tree = stripe();
+        for (int i = index; i <= size; i += i & -i) {
+            tree.getAndAdd(i - 1, value);
+        }
+    }
+
+    public long query(int index) {
+        assert index <= size;
+        long result = 0;
+        for (AtomicLongArray tree : stripes) {
+            for (int i = index; i > 0; i -= i & -i) {
+                result += tree.get(i - 1);
+            }
+        }
+        return result;
+    }
+
+    public long rangeSum(int left, int right) {
+        return query(right) - query(left - 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package trees;
+
+import java.util.Arrays;
+import utils.RangeTree;
+
+public class DynamicSegmentTree implements RangeTree {
+    private static final int NONE = 0;
+    private static final int ROOT = 1;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_NEW_NODES = 4 * Long.SIZE;
+
+    private final long low;
+    private final long high;
+    private final int budget;
+    private int nodes;
+    private int[] leftSon;
+    private int[] rightSon;
+    private long[] data;
+    private long[] tag;
+
+    public DynamicSegmentTree(long low, long high) {
+        this(low, high, Integer.MAX_VALUE - 8);
+    }
+
+    public DynamicSegmentTree(long low, long high, int budget) {
+        if (low > high) {
+            throw new IllegalArgumentException("range [" + low + ", " + high + "] is empty");
+        }
+        this.low = low;
+        this.high = high;
+        this.budget = budget;
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        this.nodes = ROOT + 1;
+        this.leftSon = new int[capacity];
+        this.rightSon = new int[capacity];
+        this.data = new long[capacity];
+        this.tag = new long[capacity];
+    }
+
+    private int newNode() {
+        if (nodes == data.length) {
+            int capacity = (int)Math.min((long)data.length << 1, (long)budget + ROOT);
+            leftSon = Arrays.copyOf(leftSon, capacity);
+            rightSon = Arrays.copyOf(rightSon, capacity);
+            data = Arrays.copyOf(data, capacity);
+            tag = Arrays.copyOf(tag, capacity);
+        }
+        return nodes++;
+    }
+
+    public int nodes() {
+        return nodes - ROOT;
+    }
+
+    public int budget() {
+        return budget;
+    }
+
+    private static long overlap(long leftBound, long rightBound, long leftRange, long rightRange) {
+        return Math.min(rightBound, rightRange) - Math.max(leftBound, leftRange) + 1;
+    }
+
+    private void update(int current, long leftBound, long rightBound, long leftRange, long rightRange
+            , long value) {
+        if (leftRange <= leftBound && rightBound <= rightRange) {
+            data[current] += value * (rightBound - leftBound + 1);
+            tag[current] += value;
+            return;
+        }
+        data[current] += value * overlap(leftBound, rightBound, leftRange, rightRange);
+        long mid = leftBound + (rightBound - leftBound >>> 1);
+        if (leftRange <= mid) {
+            if (leftSon[current] == NONE) {
+                int node = newNode();
+                leftSon[current] = node;
+            }
+            update(leftSon[current], leftBound, mid, leftRange, rightRange, value);
+        }
+        if (rightRange > mid) {
+            if (rightSon[current] == NONE) {
+                int node = newNode();
+                rightSon[current] = node;
+            }
+            update(rightSon[current], mid + 1, rightBound, leftRange, rightRange, value);
+        }
+    }
+
+    private long required(int current, long leftBound, long rightBound, long leftRange, long rightRange) {
+        if (leftRange <= leftBound && rightBound <= rightRange) {
+            return 0;
+        }
+        long result = 0;
+        long mid = leftBound + (rightBound - leftBound >>> 1);
+        if (leftRange <= mid) {
+            int son = current == NONE ? NONE : leftSon[current];
+            result += (son == NONE ? 1 : 0) + required(son, leftBound, mid, leftRange, rightRange);
+        }
+        if (rightRange > mid) {
+            int son = current == NONE ? NONE : rightSon[current];
+            result += (son == NONE ? 1 : 0) + required(son, mid + 1, rightBound, leftRange, rightRange);
+        }
+        return result;
+    }
+
+    public void update(long leftRange, long rightRange, long value) {
+        assert low <= leftRange && leftRange <= rightRange && rightRange <= high;
+        if (budget - nodes() < MAX_NEW_NODES && required(ROOT, low, high, leftRange, rightRange) > budget - nodes()) {
+            throw new IllegalStateException("node budget of " + budget + " exhausted");
+        }
+        update(ROOT, low, high, leftRange, rightRange, value);
+    }
+
+    @Override
+    public void update(int leftRange, int rightRange, long value) {
+        update((long)leftRange, (long)rightRange, value);
+    }
+
+    private long query(int current, long leftBound, long rightBound, long leftRange, long rightRange) {
+        if (current == NONE) {
+            return 0;
+        }
+        if (leftRange <= leftBound && rightBound <= rightRange) {
+            return data[current];
+        }
+        long result = tag[current] * overlap(leftBound, rightBound, leftRange, rightRange);
+        long mid = leftBound + (rightBound - leftBound >>> 1);
+        if (leftRange <= mid) {
+            result += query(leftSon[current], leftBound, mid, leftRange, rightRange);
+        }
+        if (rightRange > mid) {
+            result += query(rightSon[current], mid + 1, rightBound, leftRange, rightRange);
+        }
+        return result;
+    }
+
+    public long query(long leftRange, long rightRange) {
+        assert low <= leftRange && leftRange <= rightRange && rightRange <= high;
+        return query(ROOT, low, high, leftRange, rightRange);
+    }
+
+    @Override
+    public long query(int leftRange, int rightRange) {
+        return query((long)leftRange, (long)rightRange);
+    }
+
+    public long query(long index) {
+        return query(index, index);
+    }
+
+    private int compact(int current, int[] leftSon, int[] rightSon, long[] data, long[] tag, int[] next) {
+        if (current == NONE) {
+            return NONE;
+        }
+        int left = compact(this.leftSon[current], leftSon, rightSon, data, tag, next);
+        int right = compact(this.rightSon[current], leftSon, rightSon, data, tag, next);
+        if (left == NONE && right == NONE && this.data[current] == 0 && this.tag[current] == 0) {
+            return NONE;
+        }
+        int node = next[0]++;
+        leftSon[node] = left;
+        rightSon[node] = right;
+        data[node] = this.data[current];
+        tag[node] = this.tag[current];
+        return node;
+    }
+
+    public int compact() {
+        int capacity = Math.max(MIN_CAPACITY, nodes);
+        int[] leftSon = new int[capacity];
+        int[] rightSon = new int[capacity];
+        long[] data = new long[capacity];
+        long[] tag = new long[capacity];
+        int[] next = {ROOT + 1};
+        int left = compact(this.leftSon[ROOT], leftSon, rightSon, data, tag, next);
+        int right = compact(this.rightSon[ROOT], leftSon, rightSon, data, tag, next);
+        leftSon[ROOT] = left;
+        rightSon[ROOT] = right;
+        data[ROOT] = this.data[ROOT];
+        tag[ROOT] = this.tag[ROOT];
+        this.nodes = next[0];
+        capacity = Math.max(MIN_CAPACITY, nodes);
+        this.leftSon = Arrays.copyOf(leftSon, capacity);
+        this.rightSon = Arrays.copyOf(rightSon, capacity);
+        this.data = Arrays.copyOf(data, capacity);
+        this.tag = Arrays.copyOf(tag, capacity);
+        return nodes();
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+    }
+}
\ No newline at end of file
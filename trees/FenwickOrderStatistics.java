@@ -0,0 +1,145 @@
+package trees;
+
+import java.util.Arrays;
+import utils.BalancedTree;
+import utils.CoordinateCompressor;
+import java.util.NoSuchElementException;
+
+public class FenwickOrderStatistics implements BalancedTree<Integer> {
+    private int low;
+    private int size;
+    private int[] keys;
+    private IntBITree counts;
+
+    public FenwickOrderStatistics() {
+        prepare(new int[0]);
+    }
+
+    public FenwickOrderStatistics(int[] keys) {
+        prepare(keys);
+    }
+
+    public FenwickOrderStatistics(int low, int high) {
+        assert low <= high;
+        this.low = low;
+        this.keys = null;
+        this.counts = new IntBITree(high - low + 1);
+    }
+
+    public void prepare(int[] keys) {
+        int[] sorted = keys.clone();
+        int length = CoordinateCompressor.compress(sorted, sorted.length, false);
+        this.size = 0;
+        this.keys = Arrays.copyOf(sorted, length);
+        this.counts = new IntBITree(length);
+    }
+
+    private int keyAt(int index) {
+        return keys == null ? low + index - 1 : keys[index - 1];
+    }
+
+    private int countBelow(int value) {
+        if (keys == null) {
+            return (int)Math.max(0, Math.min(counts.size(), (long)value - low));
+        }
+        int index = Arrays.binarySearch(keys, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int countNotGreater(int value) {
+        int below = countBelow(value);
+        return below < counts.size() && keyAt(below + 1) == value ? below + 1 : below;
+    }
+
+    private int indexOf(int value) {
+        int below = countBelow(value);
+        if (below == counts.size() || keyAt(below + 1) != value) {
+            throw new IllegalArgumentException(value + " is outside the key domain");
+        }
+        return below + 1;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        counts = new IntBITree(counts.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int count(int value) {
+        int below = countBelow(value);
+        return below < counts.size() && keyAt(below + 1) == value ? counts.get(below + 1) : 0;
+    }
+
+    public void insertInt(int value) {
+        counts.update(indexOf(value), 1);
+        size++;
+    }
+
+    public void deleteInt(int value) {
+        if (count(value) != 0) {
+            counts.update(countBelow(value) + 1, -1);
+            size--;
+        }
+    }
+
+    public int rankInt(int value) {
+        return counts.query(countBelow(value)) + 1;
+    }
+
+    public int selectInt(int rank) throws NoSuchElementException {
+        if (rank < 1 || rank > size) {
+            throw new NoSuchElementException();
+        }
+        return keyAt(counts.search(rank));
+    }
+
+    public int predecessorInt(int value) throws NoSuchElementException {
+        int smaller = counts.query(countBelow(value));
+        if (smaller == 0) {
+            throw new NoSuchElementException();
+        }
+        return keyAt(counts.search(smaller));
+    }
+
+    public int successorInt(int value) throws NoSuchElementException {
+        int notGreater = counts.query(countNotGreater(value));
+        if (notGreater == size) {
+            throw new NoSuchElementException();
+        }
+        return keyAt(counts.search(notGreater + 1));
+    }
+
+    @Override
+    public void insert(Integer data) {
+        insertInt(data);
+    }
+
+    @Override
+    public void delete(Integer data) {
+        deleteInt(data);
+    }
+
+    @Override
+    public int rank(Integer data) {
+        return rankInt(data);
+    }
+
+    @Override
+    public Integer select(int rank) throws NoSuchElementException {
+        return selectInt(rank);
+    }
+
+    @Override
+    public Integer predecessor(Integer data) throws NoSuchElementException {
+        return predecessorInt(data);
+    }
+
+    @Override
+    public Integer successor(Integer data) throws NoSuchElementException {
+        return successorInt(data);
+    }
+}
\ No newline at end of file
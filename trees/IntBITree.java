@@ -0,0 +1,71 @@
+package trees;
+
+public class IntBITree {
+    private final int[] tree;
+
+    public IntBITree(int size) {
+        tree = new int[size];
+    }
+
+    public static IntBITree fromArray(int[] values) {
+        IntBITree biTree = new IntBITree(values.length);
+        System.arraycopy(values, 0, biTree.tree, 0, values.length);
+        for (int i = 1; i <= values.length; i++) {
+            int parent = i + (i & -i);
+            if (parent <= values.length) {
+                biTree.tree[parent - 1] += biTree.tree[i - 1];
+            }
+        }
+        return biTree;
+    }
+
+    public int size() {
+        return tree.length;
+    }
+
+    public void update(int index, int value) {
+        assert index > 0;
+        for (int i = index; i <= tree.length; i += i & -i) {
+            tree[i - 1] += value;
+        }
+    }
+
+    public int query(int index) {
+        assert index <= tree.length;
+        int result = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            result += tree[i - 1];
+        }
+        return result;
+    }
+
+    public int rangeSum(int left, int right) {
+        return query(right) - query(left - 1);
+    }
+
+    public int search(int target) {
+        int position = 0;
+        int remain = target;
+        for (int step = Integer.highestOneBit(Math.max(tree.length, 1)); step > 0; step >>= 1) {
+            if (position + step <= tree.length && tree[position + step - 1] < remain) {
+                position += step;
+                remain -= tree[position - 1];
+            }
+        }
+        return position + 1;
+    }
+
+    public int get(int index) {
+        assert 0 < index && index <= tree.length;
+        int result = tree[index - 1];
+        int stop = index - (index & -index);
+        for (int i = index - 1; i > stop; i -= i & -i) {
+            result -= tree[i - 1];
+        }
+        return result;
+    }
+
+    public void set(int index, int value) {
+        update(index, value - get(index));
+    }
+}
\ No newline at end of file
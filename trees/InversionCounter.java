@@ -0,0 +1,118 @@
+package trees;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class InversionCounter {
+    private static final int LEAF_SIZE = 1 << 11;
+    private static final int FORK_SIZE = 1 << 15;
+
+    private final ForkJoinPool pool;
+    private int[] work;
+    private int[] scratch;
+
+    public InversionCounter() {
+        this(null);
+    }
+
+    public InversionCounter(ForkJoinPool pool) {
+        this.pool = pool;
+        this.work = new int[0];
+        this.scratch = new int[0];
+    }
+
+    private final class Task extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int left;
+        private final int right;
+
+        private Task(int left, int right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected Long compute() {
+            if (right - left <= FORK_SIZE) {
+                return sort(left, right);
+            }
+            int middle = left + right >>> 1;
+            Task task = new Task(left, middle);
+            task.fork();
+            long result = new Task(middle, right).compute();
+            return result + task.join() + merge(left, middle, right);
+        }
+    }
+
+    private int lowerBound(int left, int right, int value) {
+        while (left < right) {
+            int middle = left + right >>> 1;
+            if (scratch[middle] < value) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    private long leaf(int left, int right) {
+        System.arraycopy(work, left, scratch, left, right - left);
+        Arrays.sort(scratch, left, right);
+        IntBITree biTree = new IntBITree(right - left);
+        long result = 0;
+        for (int i = right - 1; i >= left; i--) {
+            int rank = lowerBound(left, right, work[i]) - left + 1;
+            result += biTree.query(rank - 1);
+            biTree.update(rank, 1);
+        }
+        System.arraycopy(scratch, left, work, left, right - left);
+        return result;
+    }
+
+    private long merge(int left, int middle, int right) {
+        long result = 0;
+        int i = left;
+        int j = middle;
+        int k = left;
+        while (i < middle && j < right) {
+            if (work[j] < work[i]) {
+                result += middle - i;
+                scratch[k++] = work[j++];
+            }
+            else {
+                scratch[k++] = work[i++];
+            }
+        }
+        System.arraycopy(work, i, scratch, k, middle - i);
+        System.arraycopy(scratch, left, work, left, j - left);
+        return result;
+    }
+
+    private long sort(int left, int right) {
+        if (right - left <= LEAF_SIZE) {
+            return leaf(left, right);
+        }
+        int middle = left + right >>> 1;
+        return sort(left, middle) + sort(middle, right) + merge(left, middle, right);
+    }
+
+    public long count(int[] values) {
+        return count(values, values.length);
+    }
+
+    public long count(int[] values, int length) {
+        if (work.length < length) {
+            work = new int[length];
+            scratch = new int[length];
+        }
+        System.arraycopy(values, 0, work, 0, length);
+        if (pool == null || length <= FORK_SIZE) {
+            return sort(0, length);
+        }
+        return pool.invoke(new Task(0, length));
+    }
+}
\ No newline at end of file
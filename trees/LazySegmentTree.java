@@ -0,0 +1,212 @@
+package trees;
+
+import java.util.function.Predicate;
+
+public class LazySegmentTree<S, F> {
+    @FunctionalInterface
+    public interface Operator<S> {
+        S apply(S lhs, S rhs);
+    }
+
+    @FunctionalInterface
+    public interface Mapping<S, F> {
+        S map(F tag, S value, int width);
+    }
+
+    @FunctionalInterface
+    public interface Composition<F> {
+        F compose(F outer, F inner);
+    }
+
+    private final int size;
+    private final int depth;
+    private final int capacity;
+    private final S identity;
+    private final Object[] data;
+    private final Object[] tag;
+    private final int[] count;
+    private final Operator<S> operator;
+    private final Mapping<S, F> mapping;
+    private final Composition<F> composition;
+
+    public LazySegmentTree(int size, S identity, Operator<S> operator, Mapping<S, F> mapping
+            , Composition<F> composition) {
+        this.size = size;
+        this.depth = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+        this.capacity = 1 << depth;
+        this.identity = identity;
+        this.operator = operator;
+        this.mapping = mapping;
+        this.composition = composition;
+        this.data = new Object[capacity << 1];
+        this.tag = new Object[capacity];
+        this.count = new int[capacity << 1];
+        for (int i = capacity; i < capacity << 1; i++) {
+            data[i] = identity;
+            count[i] = i - capacity < size ? 1 : 0;
+        }
+        for (int i = capacity - 1; i > 0; i--) {
+            count[i] = count[i << 1] + count[i << 1 | 1];
+            data[i] = identity;
+        }
+    }
+
+    public void build(S[] values) {
+        assert values.length == size;
+        System.arraycopy(values, 0, data, capacity, size);
+        for (int i = capacity - 1; i > 0; i--) {
+            tag[i] = null;
+            pull(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private S data(int node) {
+        return (S)data[node];
+    }
+
+    private void apply(int node, F value) {
+        if (count[node] == 0) {
+            return;
+        }
+        data[node] = mapping.map(value, data(node), count[node]);
+        if (node < capacity) {
+            @SuppressWarnings("unchecked")
+            F cast = (F)tag[node];
+            tag[node] = cast == null ? value : composition.compose(value, cast);
+        }
+    }
+
+    private void push(int node) {
+        if (tag[node] != null) {
+            @SuppressWarnings("unchecked")
+            F cast = (F)tag[node];
+            apply(node << 1, cast);
+            apply(node << 1 | 1, cast);
+            tag[node] = null;
+        }
+    }
+
+    private void pull(int node) {
+        data[node] = operator.apply(data(node << 1), data(node << 1 | 1));
+    }
+
+    private void pushDown(int left, int right) {
+        for (int i = depth; i > 0; i--) {
+            if ((left >> i << i) != left) {
+                push(left >> i);
+            }
+            if ((right >> i << i) != right) {
+                push(right - 1 >> i);
+            }
+        }
+    }
+
+    public void update(int leftRange, int rightRange, F value) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        int left = leftRange - 1 + capacity;
+        int right = rightRange + capacity;
+        pushDown(left, right);
+        for (int l = left, r = right; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) != 0) {
+                apply(l++, value);
+            }
+            if ((r & 1) != 0) {
+                apply(--r, value);
+            }
+        }
+        for (int i = 1; i <= depth; i++) {
+            if ((left >> i << i) != left) {
+                pull(left >> i);
+            }
+            if ((right >> i << i) != right) {
+                pull(right - 1 >> i);
+            }
+        }
+    }
+
+    public S query(int leftRange, int rightRange) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        int left = leftRange - 1 + capacity;
+        int right = rightRange + capacity;
+        pushDown(left, right);
+        S leftResult = identity;
+        S rightResult = identity;
+        for (; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) != 0) {
+                leftResult = operator.apply(leftResult, data(left++));
+            }
+            if ((right & 1) != 0) {
+                rightResult = operator.apply(data(--right), rightResult);
+            }
+        }
+        return operator.apply(leftResult, rightResult);
+    }
+
+    public S query(int index) {
+        return query(index, index);
+    }
+
+    public int maxRight(int leftRange, Predicate<S> predicate) {
+        assert 0 < leftRange && leftRange <= size + 1 && predicate.test(identity);
+        if (leftRange == size + 1) {
+            return size;
+        }
+        int left = leftRange - 1 + capacity;
+        for (int i = depth; i > 0; i--) {
+            push(left >> i);
+        }
+        S result = identity;
+        do {
+            while ((left & 1) == 0) {
+                left >>= 1;
+            }
+            if (!predicate.test(operator.apply(result, data(left)))) {
+                while (left < capacity) {
+                    push(left);
+                    left <<= 1;
+                    if (predicate.test(operator.apply(result, data(left)))) {
+                        result = operator.apply(result, data(left++));
+                    }
+                }
+                return left - capacity;
+            }
+            result = operator.apply(result, data(left++));
+        } while ((left & -left) != left);
+        return size;
+    }
+
+    public int minLeft(int rightRange, Predicate<S> predicate) {
+        assert 0 <= rightRange && rightRange <= size && predicate.test(identity);
+        if (rightRange == 0) {
+            return 1;
+        }
+        int right = rightRange + capacity;
+        for (int i = depth; i > 0; i--) {
+            push(right - 1 >> i);
+        }
+        S result = identity;
+        do {
+            right--;
+            while (right > 1 && (right & 1) != 0) {
+                right >>= 1;
+            }
+            if (!predicate.test(operator.apply(data(right), result))) {
+                while (right < capacity) {
+                    push(right);
+                    right = right << 1 | 1;
+                    if (predicate.test(operator.apply(data(right), result))) {
+                        result = operator.apply(data(right--), result);
+                    }
+                }
+                return right + 2 - capacity;
+            }
+            result = operator.apply(data(right), result);
+        } while ((right & -right) != right);
+        return 1;
+    }
+}
\ No newline at end of file
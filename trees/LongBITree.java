@@ -0,0 +1,59 @@
+package trees;
+
+public class LongBITree {
+    private final long[] tree;
+
+    public LongBITree(int size) {
+        tree = new long[size];
+    }
+
+    public static LongBITree fromArray(long[] values) {
+        LongBITree biTree = new LongBITree(values.length);
+        System.arraycopy(values, 0, biTree.tree, 0, values.length);
+        for (int i = 1; i <= values.length; i++) {
+            int parent = i + (i & -i);
+            if (parent <= values.length) {
+                biTree.tree[parent - 1] += biTree.tree[i - 1];
+            }
+        }
+        return biTree;
+    }
+
+    public int size() {
+        return tree.length;
+    }
+
+    public void update(int index, long value) {
+        assert index > 0;
+        for (int i = index; i <= tree.length; i += i & -i) {
+            tree[i - 1] += value;
+        }
+    }
+
+    public long query(int index) {
+        assert index <= tree.length;
+        long result = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            result += tree[i - 1];
+        }
+        return result;
+    }
+
+    public long rangeSum(int left, int right) {
+        return query(right) - query(left - 1);
+    }
+
+    public long get(int index) {
+        assert 0 < index && index <= tree.length;
+        long result = tree[index - 1];
+        int stop = index - (index & -index);
+        for (int i = index - 1; i > stop; i -= i & -i) {
+            result -= tree[i - 1];
+        }
+        return result;
+    }
+
+    public void set(int index, long value) {
+        update(index, value - get(index));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package trees;
+
+import java.util.Arrays;
+import utils.RangeTree;
+import java.util.function.LongPredicate;
+
+public class LongLazySegmentTree implements RangeTree {
+    public enum Kind {
+        SUM, MIN, MAX
+    }
+
+    private final Kind kind;
+    private final int size;
+    private final int depth;
+    private final int capacity;
+    private final long identity;
+    private final long[] data;
+    private final long[] mul;
+    private final long[] add;
+    private final int[] count;
+
+    public LongLazySegmentTree(Kind kind, int size) {
+        this(kind, new long[size]);
+    }
+
+    public LongLazySegmentTree(Kind kind, long[] values) {
+        this.kind = kind;
+        this.size = values.length;
+        this.depth = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+        this.capacity = 1 << depth;
+        this.identity = kind == Kind.SUM ? 0 : kind == Kind.MIN ? Long.MAX_VALUE : Long.MIN_VALUE;
+        this.data = new long[capacity << 1];
+        this.mul = new long[capacity];
+        this.add = new long[capacity];
+        this.count = new int[capacity << 1];
+        Arrays.fill(mul, 1);
+        Arrays.fill(data, capacity + size, capacity << 1, identity);
+        System.arraycopy(values, 0, data, capacity, size);
+        Arrays.fill(count, capacity, capacity + size, 1);
+        for (int i = capacity - 1; i > 0; i--) {
+            count[i] = count[i << 1] + count[i << 1 | 1];
+            pull(i);
+        }
+    }
+
+    public static LongLazySegmentTree sum(long[] values) {
+        return new LongLazySegmentTree(Kind.SUM, values);
+    }
+
+    public static LongLazySegmentTree min(long[] values) {
+        return new LongLazySegmentTree(Kind.MIN, values);
+    }
+
+    public static LongLazySegmentTree max(long[] values) {
+        return new LongLazySegmentTree(Kind.MAX, values);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private long combine(long lhs, long rhs) {
+        switch (kind) {
+            case MIN:
+                return Math.min(lhs, rhs);
+            case MAX:
+                return Math.max(lhs, rhs);
+            default:
+                return lhs + rhs;
+        }
+    }
+
+    private void apply(int node, long times, long plus) {
+        if (count[node] == 0) {
+            return;
+        }
+        data[node] = data[node] * times + (kind == Kind.SUM ? plus * count[node] : plus);
+        if (node < capacity) {
+            mul[node] *= times;
+            add[node] = add[node] * times + plus;
+        }
+    }
+
+    private void push(int node) {
+        if (mul[node] != 1 || add[node] != 0) {
+            apply(node << 1, mul[node], add[node]);
+            apply(node << 1 | 1, mul[node], add[node]);
+            mul[node] = 1;
+            add[node] = 0;
+        }
+    }
+
+    private void pull(int node) {
+        data[node] = combine(data[node << 1], data[node << 1 | 1]);
+    }
+
+    private void pushDown(int left, int right) {
+        for (int i = depth; i > 0; i--) {
+            if ((left >> i << i) != left) {
+                push(left >> i);
+            }
+            if ((right >> i << i) != right) {
+                push(right - 1 >> i);
+            }
+        }
+    }
+
+    public void update(int leftRange, int rightRange, long times, long plus) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        if (times < 0 && kind != Kind.SUM) {
+            throw new IllegalArgumentException("negative multiplier does not preserve " + kind);
+        }
+        int left = leftRange - 1 + capacity;
+        int right = rightRange + capacity;
+        pushDown(left, right);
+        for (int l = left, r = right; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) != 0) {
+                apply(l++, times, plus);
+            }
+            if ((r & 1) != 0) {
+                apply(--r, times, plus);
+            }
+        }
+        for (int i = 1; i <= depth; i++) {
+            if ((left >> i << i) != left) {
+                pull(left >> i);
+            }
+            if ((right >> i << i) != right) {
+                pull(right - 1 >> i);
+            }
+        }
+    }
+
+    @Override
+    public void update(int leftRange, int rightRange, long value) {
+        add(leftRange, rightRange, value);
+    }
+
+    public void add(int leftRange, int rightRange, long value) {
+        update(leftRange, rightRange, 1, value);
+    }
+
+    public void assign(int leftRange, int rightRange, long value) {
+        update(leftRange, rightRange, 0, value);
+    }
+
+    @Override
+    public long query(int leftRange, int rightRange) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        int left = leftRange - 1 + capacity;
+        int right = rightRange + capacity;
+        pushDown(left, right);
+        long result = identity;
+        for (; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) != 0) {
+                result = combine(result, data[left++]);
+            }
+            if ((right & 1) != 0) {
+                result = combine(result, data[--right]);
+            }
+        }
+        return result;
+    }
+
+    public long query(int index) {
+        return query(index, index);
+    }
+
+    public int maxRight(int leftRange, LongPredicate predicate) {
+        assert 0 < leftRange && leftRange <= size + 1 && predicate.test(identity);
+        if (leftRange == size + 1) {
+            return size;
+        }
+        int left = leftRange - 1 + capacity;
+        for (int i = depth; i > 0; i--) {
+            push(left >> i);
+        }
+        long result = identity;
+        do {
+            while ((left & 1) == 0) {
+                left >>= 1;
+            }
+            if (!predicate.test(combine(result, data[left]))) {
+                while (left < capacity) {
+                    push(left);
+                    left <<= 1;
+                    if (predicate.test(combine(result, data[left]))) {
+                        result = combine(result, data[left++]);
+                    }
+                }
+                return left - capacity;
+            }
+            result = combine(result, data[left++]);
+        } while ((left & -left) != left);
+        return size;
+    }
+
+    public int minLeft(int rightRange, LongPredicate predicate) {
+        assert 0 <= rightRange && rightRange <= size && predicate.test(identity);
+        if (rightRange == 0) {
+            return 1;
+        }
+        int right = rightRange + capacity;
+        for (int i = depth; i > 0; i--) {
+            push(right - 1 >> i);
+        }
+        long result = identity;
+        do {
+            right--;
+            while (right > 1 && (right & 1) != 0) {
+                right >>= 1;
+            }
+            if (!predicate.test(combine(data[right], result))) {
+                while (right < capacity) {
+                    push(right);
+                    right = right << 1 | 1;
+                    if (predicate.test(combine(data[right], result))) {
+                        result = combine(data[right--], result);
+                    }
+                }
+                return right + 2 - capacity;
+            }
+            result = combine(data[right], result);
+        } while ((right & -right) != right);
+        return 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package trees;
+
+import utils.RangeTree;
+import java.util.stream.IntStream;
+
+public class LongSegmentTree implements RangeTree {
+    private static final int FORK_SIZE = 1 << 16;
+
+    private final int size;
+    private final int depth;
+    private final int capacity;
+    private final long[] data;
+    private final long[] tag;
+
+    public LongSegmentTree(int size) {
+        this.size = size;
+        this.depth = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+        this.capacity = 1 << depth;
+        this.data = new long[capacity << 1];
+        this.tag = new long[capacity];
+    }
+
+    public static LongSegmentTree fromArray(long[] values) {
+        LongSegmentTree segmentTree = new LongSegmentTree(values.length);
+        System.arraycopy(values, 0, segmentTree.data, segmentTree.capacity, values.length);
+        for (int i = segmentTree.capacity - 1; i > 0; i--) {
+            segmentTree.pull(i);
+        }
+        return segmentTree;
+    }
+
+    public static LongSegmentTree fromArray(long[] values, boolean parallel) {
+        if (!parallel || values.length < FORK_SIZE) {
+            return fromArray(values);
+        }
+        LongSegmentTree segmentTree = new LongSegmentTree(values.length);
+        System.arraycopy(values, 0, segmentTree.data, segmentTree.capacity, values.length);
+        for (int level = segmentTree.capacity >> 1; level > 0; level >>= 1) {
+            if (level < FORK_SIZE) {
+                for (int i = (level << 1) - 1; i >= level; i--) {
+                    segmentTree.pull(i);
+                }
+            }
+            else {
+                IntStream.range(level, level << 1).parallel().forEach(segmentTree::pull);
+            }
+        }
+        return segmentTree;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int width(int node) {
+        return capacity >> 31 - Integer.numberOfLeadingZeros(node);
+    }
+
+    private void apply(int node, long value) {
+        data[node] += value * width(node);
+        if (node < capacity) {
+            tag[node] += value;
+        }
+    }
+
+    private void push(int node) {
+        if (tag[node] != 0) {
+            apply(node << 1, tag[node]);
+            apply(node << 1 | 1, tag[node]);
+            tag[node] = 0;
+        }
+    }
+
+    private void pull(int node) {
+        data[node] = data[node << 1] + data[node << 1 | 1];
+    }
+
+    private void pushDown(int left, int right) {
+        for (int i = depth; i > 0; i--) {
+            if ((left >> i << i) != left) {
+                push(left >> i);
+            }
+            if ((right >> i << i) != right) {
+                push(right - 1 >> i);
+            }
+        }
+    }
+
+    @Override
+    public void update(int leftRange, int rightRange, long value) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        int left = leftRange - 1 + capacity;
+        int right = rightRange + capacity;
+        pushDown(left, right);
+        for (int l = left, r = right; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) != 0) {
+                apply(l++, value);
+            }
+            if ((r & 1) != 0) {
+                apply(--r, value);
+            }
+        }
+        for (int i = 1; i <= depth; i++) {
+            if ((left >> i << i) != left) {
+                pull(left >> i);
+            }
+            if ((right >> i << i) != right) {
+                pull(right - 1 >> i);
+            }
+        }
+    }
+
+    @Override
+    public long query(int leftRange, int rightRange) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        int left = leftRange - 1 + capacity;
+        int right = rightRange + capacity;
+        pushDown(left, right);
+        long result = 0;
+        for (; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) != 0) {
+                result += data[left++];
+            }
+            if ((right & 1) != 0) {
+                result += data[--right];
+            }
+        }
+        return result;
+    }
+
+    public long query(int index) {
+        return query(index, index);
+    }
+}
\ No newline at end of file
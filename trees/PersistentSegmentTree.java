@@ -0,0 +1,174 @@
+package trees;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public class PersistentSegmentTree {
+    private static final class Pool {
+        private final int[] leftSon;
+        private final int[] rightSon;
+        private final long[] data;
+        private final int[] roots;
+
+        private Pool(int nodes, int versions) {
+            this.leftSon = new int[nodes];
+            this.rightSon = new int[nodes];
+            this.data = new long[nodes];
+            this.roots = new int[versions];
+        }
+
+        private Pool(Pool pool, int nodes, int versions) {
+            this.leftSon = Arrays.copyOf(pool.leftSon, nodes);
+            this.rightSon = Arrays.copyOf(pool.rightSon, nodes);
+            this.data = Arrays.copyOf(pool.data, nodes);
+            this.roots = Arrays.copyOf(pool.roots, versions);
+        }
+    }
+
+    private static final int NONE = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private final int size;
+    private int nodes;
+    private volatile Pool pool;
+    private volatile int versions;
+
+    public PersistentSegmentTree(int size) {
+        this.size = size;
+        this.nodes = NONE + 1;
+        this.pool = new Pool(MIN_CAPACITY, MIN_CAPACITY);
+        this.versions = 1;
+    }
+
+    public PersistentSegmentTree(long[] values) {
+        this.size = values.length;
+        this.nodes = NONE + 1;
+        this.pool = new Pool(Math.max(MIN_CAPACITY, values.length << 1), MIN_CAPACITY);
+        this.pool.roots[0] = values.length == 0 ? NONE : build(values, 1, values.length);
+        this.versions = 1;
+    }
+
+    private int newNode(int leftSon, int rightSon, long data) {
+        Pool current = pool;
+        if (nodes == current.data.length) {
+            current = new Pool(current, nodes << 1, current.roots.length);
+            pool = current;
+        }
+        current.leftSon[nodes] = leftSon;
+        current.rightSon[nodes] = rightSon;
+        current.data[nodes] = data;
+        return nodes++;
+    }
+
+    private int build(long[] values, int leftBound, int rightBound) {
+        if (leftBound == rightBound) {
+            return newNode(NONE, NONE, values[leftBound - 1]);
+        }
+        int mid = (leftBound + rightBound) >> 1;
+        int left = build(values, leftBound, mid);
+        int right = build(values, mid + 1, rightBound);
+        return newNode(left, right, pool.data[left] + pool.data[right]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int versions() {
+        return versions;
+    }
+
+    public int nodes() {
+        return nodes - 1;
+    }
+
+    private int update(int current, int leftBound, int rightBound, int index, long value) {
+        Pool pool = this.pool;
+        if (leftBound == rightBound) {
+            return newNode(NONE, NONE, pool.data[current] + value);
+        }
+        int mid = (leftBound + rightBound) >> 1;
+        int left = pool.leftSon[current];
+        int right = pool.rightSon[current];
+        if (index <= mid) {
+            left = update(left, leftBound, mid, index, value);
+        }
+        else {
+            right = update(right, mid + 1, rightBound, index, value);
+        }
+        return newNode(left, right, this.pool.data[current] + value);
+    }
+
+    public synchronized int update(int version, int index, long value) {
+        assert 0 < index && index <= size;
+        Pool pool = this.pool;
+        int root = update(root(pool, version, versions), 1, size, index, value);
+        if (versions == pool.roots.length) {
+            this.pool = new Pool(this.pool, this.pool.data.length, versions << 1);
+        }
+        this.pool.roots[versions] = root;
+        versions = versions + 1;
+        return versions - 1;
+    }
+
+    private static int root(Pool pool, int version, int published) {
+        if (version < 0 || version >= published) {
+            throw new IllegalArgumentException("unknown version " + version);
+        }
+        return pool.roots[version];
+    }
+
+    private long query(Pool pool, int current, int leftBound, int rightBound, int leftRange, int rightRange) {
+        if (current == NONE || leftRange <= leftBound && rightBound <= rightRange) {
+            return pool.data[current];
+        }
+        int mid = (leftBound + rightBound) >> 1;
+        long result = 0;
+        if (leftRange <= mid) {
+            result += query(pool, pool.leftSon[current], leftBound, mid, leftRange, rightRange);
+        }
+        if (rightRange > mid) {
+            result += query(pool, pool.rightSon[current], mid + 1, rightBound, leftRange, rightRange);
+        }
+        return result;
+    }
+
+    public long query(int version, int leftRange, int rightRange) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        int published = versions;
+        Pool pool = this.pool;
+        return query(pool, root(pool, version, published), 1, size, leftRange, rightRange);
+    }
+
+    public long query(int version, int index) {
+        return query(version, index, index);
+    }
+
+    public int kth(int lowVersion, int highVersion, long rank) throws NoSuchElementException {
+        int published = versions;
+        Pool pool = this.pool;
+        int low = root(pool, lowVersion, published);
+        int high = root(pool, highVersion, published);
+        if (rank < 1 || rank > pool.data[high] - pool.data[low]) {
+            throw new NoSuchElementException();
+        }
+        int leftBound = 1;
+        int rightBound = size;
+        while (leftBound < rightBound) {
+            int mid = (leftBound + rightBound) >> 1;
+            long count = pool.data[pool.leftSon[high]] - pool.data[pool.leftSon[low]];
+            if (rank <= count) {
+                low = pool.leftSon[low];
+                high = pool.leftSon[high];
+                rightBound = mid;
+            }
+            else {
+                rank -= count;
+                low = pool.rightSon[low];
+                high = pool.rightSon[high];
+                leftBound = mid + 1;
+            }
+        }
+        return leftBound;
+    }
+}
\ No newline at end of file
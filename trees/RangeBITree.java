@@ -0,0 +1,59 @@
+package trees;
+
+import utils.RangeTree;
+
+public class RangeBITree implements RangeTree {
+    private final LongBITree base;
+    private final LongBITree bias;
+
+    private RangeBITree(LongBITree base, LongBITree bias) {
+        this.base = base;
+        this.bias = bias;
+    }
+
+    public RangeBITree(int size) {
+        this(new LongBITree(size), new LongBITree(size));
+    }
+
+    public static RangeBITree fromArray(long[] values) {
+        long[] negate = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            negate[i] = -values[i];
+        }
+        return new RangeBITree(new LongBITree(values.length), LongBITree.fromArray(negate));
+    }
+
+    private long prefix(int index) {
+        return base.query(index) * index - bias.query(index);
+    }
+
+    private void mark(int index, long value, long weight) {
+        if (index <= base.size()) {
+            base.update(index, value);
+            bias.update(index, weight);
+        }
+    }
+
+    @Override
+    public void update(int leftRange, int rightRange, long value) {
+        mark(leftRange, value, value * (leftRange - 1));
+        mark(rightRange + 1, -value, -value * rightRange);
+    }
+
+    @Override
+    public long query(int leftRange, int rightRange) {
+        return prefix(rightRange) - prefix(leftRange - 1);
+    }
+
+    public void add(int leftRange, int rightRange, long value) {
+        update(leftRange, rightRange, value);
+    }
+
+    public long sum(int leftRange, int rightRange) {
+        return query(leftRange, rightRange);
+    }
+
+    public long query(int index) {
+        return query(index, index);
+    }
+}
\ No newline at end of file
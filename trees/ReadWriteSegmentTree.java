@@ -0,0 +1,58 @@
+package trees;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ReadWriteSegmentTree<T> {
+    private final SegmentTree<T> segmentTree;
+    private final ReadWriteLock lock;
+
+    public ReadWriteSegmentTree(SegmentTree<T> segmentTree) {
+        this.segmentTree = segmentTree;
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    public void build(T[] values) {
+        lock.writeLock().lock();
+        try {
+            segmentTree.build(values);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void insert(int index, T value) {
+        lock.writeLock().lock();
+        try {
+            segmentTree.insert(index, value);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void update(int leftRange, int rightRange, T value) {
+        lock.writeLock().lock();
+        try {
+            segmentTree.update(leftRange, rightRange, value);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public T query(int index) {
+        return query(index, index);
+    }
+
+    public T query(int leftRange, int rightRange) {
+        lock.readLock().lock();
+        try {
+            return segmentTree.query(leftRange, rightRange);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+}
\ No newline at end of file
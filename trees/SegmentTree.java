@@ -1,5 +1,11 @@
 package trees;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RecursiveAction;
+
 public class SegmentTree<T> {
     @FunctionalInterface
     public interface AddAble<T> {
@@ -23,9 +29,126 @@ public class SegmentTree<T> {
         }
     }
 
+    private final class BuildTask extends RecursiveTask<Node<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] values;
+        private final int leftBound;
+        private final int rightBound;
+
+        private BuildTask(T[] values, int leftBound, int rightBound) {
+            this.values = values;
+            this.leftBound = leftBound;
+            this.rightBound = rightBound;
+        }
+
+        @Override
+        protected Node<T> compute() {
+            if (rightBound - leftBound < FORK_SIZE) {
+                return build(values, leftBound, rightBound);
+            }
+            int mid = (leftBound + rightBound) >> 1;
+            BuildTask task = new BuildTask(values, leftBound, mid);
+            task.fork();
+            Node<T> node = new Node<>(zeroElement);
+            node.rightSon = new BuildTask(values, mid + 1, rightBound).compute();
+            node.leftSon = task.join();
+            node.data = adder.add(node.leftSon.data, node.rightSon.data);
+            return node;
+        }
+    }
+
+    private final class Batch {
+        private final int[] leftRanges;
+        private final int[] rightRanges;
+        private final T[] values;
+        private int[] ids;
+
+        private Batch(int[] leftRanges, int[] rightRanges, T[] values, int[] ids) {
+            this.leftRanges = leftRanges;
+            this.rightRanges = rightRanges;
+            this.values = values;
+            this.ids = ids;
+        }
+
+        private Batch fork(int[] ids) {
+            return new Batch(leftRanges, rightRanges, values, ids);
+        }
+
+        private int[] reserve(int size) {
+            if (size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(size, ids.length << 1));
+            }
+            return ids;
+        }
+
+        private boolean covers(int id, int leftBound, int rightBound) {
+            return leftRanges[id] <= leftBound && rightBound <= rightRanges[id];
+        }
+
+        private void select(int from, int count, int leftBound, int rightBound, boolean left, int[] target, int at) {
+            int mid = (leftBound + rightBound) >> 1;
+            for (int i = from; i < from + count; i++) {
+                int id = ids[i];
+                if (!covers(id, leftBound, rightBound) && (left ? leftRanges[id] <= mid : rightRanges[id] > mid)) {
+                    target[at++] = id;
+                }
+            }
+        }
+    }
+
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Node<T> current;
+        private final int leftBound;
+        private final int rightBound;
+        private final Batch batch;
+        private final int count;
+
+        private BatchTask(Node<T> current, int leftBound, int rightBound, Batch batch, int count) {
+            this.current = current;
+            this.leftBound = leftBound;
+            this.rightBound = rightBound;
+            this.batch = batch;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            applyBatch(current, leftBound, rightBound, batch, 0, count, true);
+        }
+    }
+
+    private final class QueryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+        private final int from;
+        private final int to;
+
+        private QueryTask(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_FORK_SIZE) {
+                int[] ids = Arrays.copyOf(Arrays.copyOfRange(batch.ids, from, to), (to - from) << 2);
+                queryBatch(root, 1, size, batch.fork(ids), 0, to - from, zeroElement);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new QueryTask(batch, from, mid), new QueryTask(batch, mid, to));
+        }
+    }
+
+    private static final int FORK_SIZE = 1 << 16;
+    private static final int BATCH_FORK_SIZE = 1 << 10;
+
     private Node<T> root;
-    private int leftRange;
-    private int rightRange;
     private final int size;
     private final T zeroElement;
     private final AddAble<T> adder;
@@ -59,28 +182,50 @@ public class SegmentTree<T> {
         this.zeroElement = zeroElement;
     }
 
-    private Node<T> insert(Node<T> current, int leftBound, int rightBound, T value) {
+    private Node<T> build(T[] values, int leftBound, int rightBound) {
+        Node<T> node = new Node<>(zeroElement);
+        if (leftBound >= rightBound) {
+            node.data = values[leftBound - 1];
+            return node;
+        }
+        int mid = (leftBound + rightBound) >> 1;
+        node.leftSon = build(values, leftBound, mid);
+        node.rightSon = build(values, mid + 1, rightBound);
+        node.data = adder.add(node.leftSon.data, node.rightSon.data);
+        return node;
+    }
+
+    public void build(T[] values) {
+        assert values.length == size;
+        root = size == 0 ? null : build(values, 1, size);
+    }
+
+    public void build(T[] values, ForkJoinPool pool) {
+        assert values.length == size;
+        root = size == 0 ? null : pool.invoke(new BuildTask(values, 1, size));
+    }
+
+    private Node<T> insert(Node<T> current, int leftBound, int rightBound, int index, T value) {
         Node<T> node = current == null ? new Node<>(zeroElement) : current;
         node.data = adder.add(node.data, value);
         if (leftBound >= rightBound) {
             return node;
         }
         int mid = (leftBound + rightBound) >> 1;
-        if (leftRange <= mid) {
-            node.leftSon = insert(node.leftSon, leftBound, mid, value);
+        if (index <= mid) {
+            node.leftSon = insert(node.leftSon, leftBound, mid, index, value);
         }
-        if (rightRange > mid) {
-            node.rightSon = insert(node.rightSon, mid + 1, rightBound, value);
+        else {
+            node.rightSon = insert(node.rightSon, mid + 1, rightBound, index, value);
         }
         return node;
     }
 
     public void insert(int index, T value) {
-        this.leftRange = this.rightRange = index;
-        root = insert(root, 1, size, value);
+        root = insert(root, 1, size, index, value);
     }
 
-    private void update(Node<T> current, int leftBound, int rightBound, T value) {
+    private void update(Node<T> current, int leftBound, int rightBound, int leftRange, int rightRange, T value) {
         if (leftRange <= leftBound && rightBound <= rightRange) {
             updateNode(current, leftBound, rightBound, value);
             return;
@@ -88,44 +233,176 @@ public class SegmentTree<T> {
         spread(current, leftBound, rightBound);
         int mid = (leftBound + rightBound) >> 1;
         if (leftRange <= mid) {
-            update(current.leftSon, leftBound, mid, value);
+            update(current.leftSon, leftBound, mid, leftRange, rightRange, value);
         }
         if (rightRange > mid) {
-            update(current.rightSon, mid + 1, rightBound, value);
+            update(current.rightSon, mid + 1, rightBound, leftRange, rightRange, value);
         }
         current.data = adder.add(current.leftSon.data, current.rightSon.data);
     }
 
     public void update(int leftRange, int rightRange, T value) {
-        this.leftRange = leftRange;
-        this.rightRange = rightRange;
-        update(root, 1, size, value);
+        update(root, 1, size, leftRange, rightRange, value);
+    }
+
+    private void applyBatch(Node<T> current, int leftBound, int rightBound, Batch batch, int from, int count
+            , boolean parallel) {
+        T covered = zeroElement;
+        int mid = (leftBound + rightBound) >> 1;
+        int leftCount = 0;
+        int rightCount = 0;
+        for (int i = from; i < from + count; i++) {
+            int id = batch.ids[i];
+            if (batch.covers(id, leftBound, rightBound)) {
+                covered = adder.add(covered, batch.values[id]);
+                continue;
+            }
+            leftCount += batch.leftRanges[id] <= mid ? 1 : 0;
+            rightCount += batch.rightRanges[id] > mid ? 1 : 0;
+        }
+        if (leftCount != 0 || rightCount != 0) {
+            spread(current, leftBound, rightBound);
+            if (parallel && leftCount + rightCount >= BATCH_FORK_SIZE && leftCount != 0 && rightCount != 0) {
+                Batch left = batch.fork(new int[leftCount << 2]);
+                Batch right = batch.fork(new int[rightCount << 2]);
+                batch.select(from, count, leftBound, rightBound, true, left.ids, 0);
+                batch.select(from, count, leftBound, rightBound, false, right.ids, 0);
+                ForkJoinTask.invokeAll(new BatchTask(current.leftSon, leftBound, mid, left, leftCount)
+                        , new BatchTask(current.rightSon, mid + 1, rightBound, right, rightCount));
+            }
+            else {
+                int top = from + count;
+                if (leftCount != 0) {
+                    batch.select(from, count, leftBound, rightBound, true, batch.reserve(top + leftCount), top);
+                    applyBatch(current.leftSon, leftBound, mid, batch, top, leftCount, parallel);
+                }
+                if (rightCount != 0) {
+                    batch.select(from, count, leftBound, rightBound, false, batch.reserve(top + rightCount), top);
+                    applyBatch(current.rightSon, mid + 1, rightBound, batch, top, rightCount, parallel);
+                }
+            }
+            current.data = adder.add(current.leftSon.data, current.rightSon.data);
+        }
+        if (covered != zeroElement) {
+            updateNode(current, leftBound, rightBound, covered);
+        }
+    }
+
+    private static int[] sortedIds(int[] leftRanges, int capacity) {
+        long[] keys = new long[leftRanges.length];
+        for (int i = 0; i < leftRanges.length; i++) {
+            keys[i] = (long)leftRanges[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        int[] ids = new int[Math.max(capacity, keys.length)];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = (int)keys[i];
+        }
+        return ids;
+    }
+
+    public void applyBatch(int[] leftRanges, int[] rightRanges, T[] values) {
+        applyBatch(leftRanges, rightRanges, values, null);
+    }
+
+    public void applyBatch(int[] leftRanges, int[] rightRanges, T[] values, ForkJoinPool pool) {
+        assert leftRanges.length == rightRanges.length && rightRanges.length == values.length;
+        if (values.length == 0) {
+            return;
+        }
+        Batch batch = new Batch(leftRanges, rightRanges, values, sortedIds(leftRanges, values.length << 2));
+        if (pool == null || values.length < BATCH_FORK_SIZE) {
+            applyBatch(root, 1, size, batch, 0, values.length, false);
+        }
+        else {
+            pool.invoke(new BatchTask(root, 1, size, batch, values.length));
+        }
+    }
+
+    private void queryBatch(Node<T> current, int leftBound, int rightBound, Batch batch, int from, int count
+            , T pending) {
+        T[] results = batch.values;
+        if (current == null) {
+            for (int i = from; i < from + count; i++) {
+                int id = batch.ids[i];
+                int width = Math.min(rightBound, batch.rightRanges[id]) - Math.max(leftBound, batch.leftRanges[id]) + 1;
+                results[id] = adder.add(results[id], muler.mul(pending, width));
+            }
+            return;
+        }
+        T carry = current.tag == zeroElement ? pending : pending == zeroElement ? current.tag
+                : adder.add(pending, current.tag);
+        int mid = (leftBound + rightBound) >> 1;
+        int leftCount = 0;
+        int rightCount = 0;
+        for (int i = from; i < from + count; i++) {
+            int id = batch.ids[i];
+            if (batch.covers(id, leftBound, rightBound)) {
+                results[id] = adder.add(results[id], pending == zeroElement ? current.data
+                        : adder.add(current.data, muler.mul(pending, rightBound - leftBound + 1)));
+                continue;
+            }
+            leftCount += batch.leftRanges[id] <= mid ? 1 : 0;
+            rightCount += batch.rightRanges[id] > mid ? 1 : 0;
+        }
+        int top = from + count;
+        if (leftCount != 0) {
+            batch.select(from, count, leftBound, rightBound, true, batch.reserve(top + leftCount), top);
+            queryBatch(current.leftSon, leftBound, mid, batch, top, leftCount, carry);
+        }
+        if (rightCount != 0) {
+            batch.select(from, count, leftBound, rightBound, false, batch.reserve(top + rightCount), top);
+            queryBatch(current.rightSon, mid + 1, rightBound, batch, top, rightCount, carry);
+        }
+    }
+
+    public void queryBatch(int[] leftRanges, int[] rightRanges, T[] results) {
+        queryBatch(leftRanges, rightRanges, results, null);
+    }
+
+    public void queryBatch(int[] leftRanges, int[] rightRanges, T[] results, ForkJoinPool pool) {
+        assert leftRanges.length == rightRanges.length && rightRanges.length == results.length;
+        Arrays.fill(results, zeroElement);
+        if (results.length == 0) {
+            return;
+        }
+        Batch batch = new Batch(leftRanges, rightRanges, results, sortedIds(leftRanges, results.length << 2));
+        if (pool == null || results.length <= BATCH_FORK_SIZE) {
+            queryBatch(root, 1, size, batch, 0, results.length, zeroElement);
+        }
+        else {
+            pool.invoke(new QueryTask(batch, 0, results.length));
+        }
     }
 
-    private T query(Node<T> current, int leftBound, int rightBound) {
+    private T query(Node<T> current, int leftBound, int rightBound, int leftRange, int rightRange, T pending) {
+        int left = Math.max(leftBound, leftRange);
+        int right = Math.min(rightBound, rightRange);
+        if (current == null) {
+            return muler.mul(pending, right - left + 1);
+        }
         if (leftRange <= leftBound && rightBound <= rightRange) {
-            return current.data;
+            return pending == zeroElement ? current.data
+                    : adder.add(current.data, muler.mul(pending, rightBound - leftBound + 1));
         }
-        spread(current, leftBound, rightBound);
+        T carry = current.tag == zeroElement ? pending : pending == zeroElement ? current.tag
+                : adder.add(pending, current.tag);
         T result = zeroElement;
         int mid = (leftBound + rightBound) >> 1;
         if (leftRange <= mid) {
-            result = adder.add(result, query(current.leftSon, leftBound, mid));
+            result = adder.add(result, query(current.leftSon, leftBound, mid, leftRange, rightRange, carry));
         }
         if (rightRange > mid) {
-            result = adder.add(result, query(current.rightSon, mid + 1, rightBound));
+            result = adder.add(result, query(current.rightSon, mid + 1, rightBound, leftRange, rightRange, carry));
         }
         return result;
     }
 
     public T query(int index) {
-        this.leftRange = this.rightRange = index;
-        return query(root, 1, size);
+        return query(index, index);
     }
 
     public T query(int leftRange, int rightRange) {
-        this.leftRange = leftRange;
-        this.rightRange = rightRange;
-        return query(root, 1, size);
+        return query(root, 1, size, leftRange, rightRange, zeroElement);
     }
 }
\ No newline at end of file
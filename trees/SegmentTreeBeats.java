@@ -0,0 +1,262 @@
+package trees;
+
+import utils.RangeTree;
+
+public class SegmentTreeBeats implements RangeTree {
+    private static final long NONE_MAX = Long.MIN_VALUE;
+    private static final long NONE_MIN = Long.MAX_VALUE;
+
+    private final int size;
+    private final long[] sum;
+    private final long[] tag;
+    private final long[] max;
+    private final long[] secondMax;
+    private final int[] maxCount;
+    private final long[] min;
+    private final long[] secondMin;
+    private final int[] minCount;
+
+    public SegmentTreeBeats(int size) {
+        this(new long[size]);
+    }
+
+    public SegmentTreeBeats(long[] values) {
+        this.size = values.length;
+        int capacity = Math.max(4, Integer.highestOneBit(Math.max(1, size - 1)) << 2);
+        this.sum = new long[capacity];
+        this.tag = new long[capacity];
+        this.max = new long[capacity];
+        this.secondMax = new long[capacity];
+        this.maxCount = new int[capacity];
+        this.min = new long[capacity];
+        this.secondMin = new long[capacity];
+        this.minCount = new int[capacity];
+        if (size != 0) {
+            build(values, 1, 1, size);
+        }
+    }
+
+    private void build(long[] values, int node, int leftBound, int rightBound) {
+        if (leftBound == rightBound) {
+            sum[node] = max[node] = min[node] = values[leftBound - 1];
+            secondMax[node] = NONE_MAX;
+            secondMin[node] = NONE_MIN;
+            maxCount[node] = minCount[node] = 1;
+            return;
+        }
+        int mid = (leftBound + rightBound) >> 1;
+        build(values, node << 1, leftBound, mid);
+        build(values, node << 1 | 1, mid + 1, rightBound);
+        pull(node);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void pull(int node) {
+        int left = node << 1;
+        int right = node << 1 | 1;
+        sum[node] = sum[left] + sum[right];
+        if (max[left] == max[right]) {
+            max[node] = max[left];
+            maxCount[node] = maxCount[left] + maxCount[right];
+            secondMax[node] = Math.max(secondMax[left], secondMax[right]);
+        }
+        else if (max[left] > max[right]) {
+            max[node] = max[left];
+            maxCount[node] = maxCount[left];
+            secondMax[node] = Math.max(secondMax[left], max[right]);
+        }
+        else {
+            max[node] = max[right];
+            maxCount[node] = maxCount[right];
+            secondMax[node] = Math.max(max[left], secondMax[right]);
+        }
+        if (min[left] == min[right]) {
+            min[node] = min[left];
+            minCount[node] = minCount[left] + minCount[right];
+            secondMin[node] = Math.min(secondMin[left], secondMin[right]);
+        }
+        else if (min[left] < min[right]) {
+            min[node] = min[left];
+            minCount[node] = minCount[left];
+            secondMin[node] = Math.min(secondMin[left], min[right]);
+        }
+        else {
+            min[node] = min[right];
+            minCount[node] = minCount[right];
+            secondMin[node] = Math.min(min[left], secondMin[right]);
+        }
+    }
+
+    private void applyAdd(int node, int width, long value) {
+        sum[node] += value * width;
+        max[node] += value;
+        min[node] += value;
+        if (secondMax[node] != NONE_MAX) {
+            secondMax[node] += value;
+        }
+        if (secondMin[node] != NONE_MIN) {
+            secondMin[node] += value;
+        }
+        tag[node] += value;
+    }
+
+    private void applyMin(int node, long value) {
+        sum[node] -= (max[node] - value) * maxCount[node];
+        if (min[node] == max[node]) {
+            min[node] = value;
+        }
+        else if (secondMin[node] == max[node]) {
+            secondMin[node] = value;
+        }
+        max[node] = value;
+    }
+
+    private void applyMax(int node, long value) {
+        sum[node] += (value - min[node]) * minCount[node];
+        if (max[node] == min[node]) {
+            max[node] = value;
+        }
+        else if (secondMax[node] == min[node]) {
+            secondMax[node] = value;
+        }
+        min[node] = value;
+    }
+
+    private void spreadTo(int node, int son, int width) {
+        if (tag[node] != 0) {
+            applyAdd(son, width, tag[node]);
+        }
+        if (max[son] > max[node]) {
+            applyMin(son, max[node]);
+        }
+        if (min[son] < min[node]) {
+            applyMax(son, min[node]);
+        }
+    }
+
+    private void spread(int node, int leftBound, int rightBound) {
+        int mid = (leftBound + rightBound) >> 1;
+        spreadTo(node, node << 1, mid - leftBound + 1);
+        spreadTo(node, node << 1 | 1, rightBound - mid);
+        tag[node] = 0;
+    }
+
+    private void chmin(int node, int leftBound, int rightBound, int leftRange, int rightRange, long value) {
+        if (rightRange < leftBound || rightBound < leftRange || max[node] <= value) {
+            return;
+        }
+        if (leftRange <= leftBound && rightBound <= rightRange && secondMax[node] < value) {
+            applyMin(node, value);
+            return;
+        }
+        spread(node, leftBound, rightBound);
+        int mid = (leftBound + rightBound) >> 1;
+        chmin(node << 1, leftBound, mid, leftRange, rightRange, value);
+        chmin(node << 1 | 1, mid + 1, rightBound, leftRange, rightRange, value);
+        pull(node);
+    }
+
+    public void chmin(int leftRange, int rightRange, long value) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        chmin(1, 1, size, leftRange, rightRange, value);
+    }
+
+    private void chmax(int node, int leftBound, int rightBound, int leftRange, int rightRange, long value) {
+        if (rightRange < leftBound || rightBound < leftRange || min[node] >= value) {
+            return;
+        }
+        if (leftRange <= leftBound && rightBound <= rightRange && secondMin[node] > value) {
+            applyMax(node, value);
+            return;
+        }
+        spread(node, leftBound, rightBound);
+        int mid = (leftBound + rightBound) >> 1;
+        chmax(node << 1, leftBound, mid, leftRange, rightRange, value);
+        chmax(node << 1 | 1, mid + 1, rightBound, leftRange, rightRange, value);
+        pull(node);
+    }
+
+    public void chmax(int leftRange, int rightRange, long value) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        chmax(1, 1, size, leftRange, rightRange, value);
+    }
+
+    private void add(int node, int leftBound, int rightBound, int leftRange, int rightRange, long value) {
+        if (rightRange < leftBound || rightBound < leftRange) {
+            return;
+        }
+        if (leftRange <= leftBound && rightBound <= rightRange) {
+            applyAdd(node, rightBound - leftBound + 1, value);
+            return;
+        }
+        spread(node, leftBound, rightBound);
+        int mid = (leftBound + rightBound) >> 1;
+        add(node << 1, leftBound, mid, leftRange, rightRange, value);
+        add(node << 1 | 1, mid + 1, rightBound, leftRange, rightRange, value);
+        pull(node);
+    }
+
+    @Override
+    public void update(int leftRange, int rightRange, long value) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        add(1, 1, size, leftRange, rightRange, value);
+    }
+
+    private long sum(int node, int leftBound, int rightBound, int leftRange, int rightRange) {
+        if (rightRange < leftBound || rightBound < leftRange) {
+            return 0;
+        }
+        if (leftRange <= leftBound && rightBound <= rightRange) {
+            return sum[node];
+        }
+        spread(node, leftBound, rightBound);
+        int mid = (leftBound + rightBound) >> 1;
+        return sum(node << 1, leftBound, mid, leftRange, rightRange)
+                + sum(node << 1 | 1, mid + 1, rightBound, leftRange, rightRange);
+    }
+
+    @Override
+    public long query(int leftRange, int rightRange) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        return sum(1, 1, size, leftRange, rightRange);
+    }
+
+    private long max(int node, int leftBound, int rightBound, int leftRange, int rightRange) {
+        if (rightRange < leftBound || rightBound < leftRange) {
+            return NONE_MAX;
+        }
+        if (leftRange <= leftBound && rightBound <= rightRange) {
+            return max[node];
+        }
+        spread(node, leftBound, rightBound);
+        int mid = (leftBound + rightBound) >> 1;
+        return Math.max(max(node << 1, leftBound, mid, leftRange, rightRange)
+                , max(node << 1 | 1, mid + 1, rightBound, leftRange, rightRange));
+    }
+
+    public long queryMax(int leftRange, int rightRange) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        return max(1, 1, size, leftRange, rightRange);
+    }
+
+    private long min(int node, int leftBound, int rightBound, int leftRange, int rightRange) {
+        if (rightRange < leftBound || rightBound < leftRange) {
+            return NONE_MIN;
+        }
+        if (leftRange <= leftBound && rightBound <= rightRange) {
+            return min[node];
+        }
+        spread(node, leftBound, rightBound);
+        int mid = (leftBound + rightBound) >> 1;
+        return Math.min(min(node << 1, leftBound, mid, leftRange, rightRange)
+                , min(node << 1 | 1, mid + 1, rightBound, leftRange, rightRange));
+    }
+
+    public long queryMin(int leftRange, int rightRange) {
+        assert 0 < leftRange && leftRange <= rightRange && rightRange <= size;
+        return min(1, 1, size, leftRange, rightRange);
+    }
+}
\ No newline at end of file
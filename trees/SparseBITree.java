@@ -0,0 +1,49 @@
+package trees;
+
+import utils.LongLongMap;
+
+public class SparseBITree {
+    private final long size;
+    private final LongLongMap tree;
+
+    public SparseBITree(long size) {
+        this(size, 16);
+    }
+
+    public SparseBITree(long size, int expected) {
+        this.size = size;
+        this.tree = new LongLongMap(expected);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int cells() {
+        return tree.size();
+    }
+
+    public void update(long index, long value) {
+        assert index > 0;
+        for (long i = index; i > 0 && i <= size; i += i & -i) {
+            tree.add(i, value);
+        }
+    }
+
+    public long query(long index) {
+        assert index <= size;
+        long result = 0;
+        for (long i = index; i > 0; i -= i & -i) {
+            result += tree.get(i);
+        }
+        return result;
+    }
+
+    public long rangeSum(long left, long right) {
+        return query(right) - query(left - 1);
+    }
+
+    public void clear() {
+        tree.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package utils;
+
+import java.util.Arrays;
+
+public class CoordinateCompressor {
+    private static final int MIN_CAPACITY = 16;
+
+    private int size;
+    private long[] keys;
+    private boolean sorted;
+
+    public CoordinateCompressor() {
+        this.keys = new long[MIN_CAPACITY];
+        this.sorted = true;
+    }
+
+    public CoordinateCompressor(int[] values, boolean parallel) {
+        this.keys = new long[Math.max(MIN_CAPACITY, values.length)];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = values[i];
+        }
+        this.size = values.length;
+        build(parallel);
+    }
+
+    public CoordinateCompressor(long[] values, boolean parallel) {
+        this.keys = Arrays.copyOf(values, Math.max(MIN_CAPACITY, values.length));
+        this.size = values.length;
+        build(parallel);
+    }
+
+    public static int compress(int[] values, int length, boolean parallel) {
+        if (parallel) {
+            Arrays.parallelSort(values, 0, length);
+        }
+        else {
+            Arrays.sort(values, 0, length);
+        }
+        int unique = 0;
+        for (int i = 0; i < length; i++) {
+            if (unique == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique;
+    }
+
+    public static int compress(long[] values, int length, boolean parallel) {
+        if (parallel) {
+            Arrays.parallelSort(values, 0, length);
+        }
+        else {
+            Arrays.sort(values, 0, length);
+        }
+        int unique = 0;
+        for (int i = 0; i < length; i++) {
+            if (unique == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique;
+    }
+
+    public static int[] ranks(int[] values, boolean parallel) {
+        int[] keys = values.clone();
+        int unique = compress(keys, keys.length, parallel);
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Arrays.binarySearch(keys, 0, unique, values[i]) + 1;
+        }
+        return result;
+    }
+
+    public static int[] ranks(long[] values, boolean parallel) {
+        long[] keys = values.clone();
+        int unique = compress(keys, keys.length, parallel);
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Arrays.binarySearch(keys, 0, unique, values[i]) + 1;
+        }
+        return result;
+    }
+
+    public void add(long value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length << 1);
+        }
+        sorted &= size == 0 || keys[size - 1] < value;
+        if (size == 0 || keys[size - 1] != value) {
+            keys[size++] = value;
+        }
+    }
+
+    public CoordinateCompressor build(boolean parallel) {
+        if (!sorted) {
+            size = compress(keys, size, parallel);
+            sorted = true;
+        }
+        return this;
+    }
+
+    public int size() {
+        build(false);
+        return size;
+    }
+
+    public long key(int rank) {
+        build(false);
+        if (rank < 1 || rank > size) {
+            throw new IndexOutOfBoundsException("rank " + rank + " out of [1, " + size + "]");
+        }
+        return keys[rank - 1];
+    }
+
+    public int lowerBound(long value) {
+        build(false);
+        int index = Arrays.binarySearch(keys, 0, size, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public int upperBound(long value) {
+        int index = lowerBound(value);
+        return index < size && keys[index] == value ? index + 1 : index;
+    }
+
+    public int rank(long value) {
+        int index = lowerBound(value);
+        if (index == size || keys[index] != value) {
+            throw new IllegalArgumentException(value + " was not compressed");
+        }
+        return index + 1;
+    }
+
+    public int[] ranks(int[] values) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = rank(values[i]);
+        }
+        return result;
+    }
+
+    public int[] ranks(long[] values) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = rank(values[i]);
+        }
+        return result;
+    }
+}
\ No newline at end of file
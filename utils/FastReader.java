@@ -1,66 +1,286 @@
 package utils;
 
+import java.nio.ByteOrder;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.io.InputStream;
+import java.io.FileInputStream;
+import java.nio.channels.FileChannel;
+import java.util.NoSuchElementException;
 
 public class FastReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int VARINT_SIZE = 10;
+    private static final long MAP_WINDOW = 1L << 30;
+    private static final long ZERO_BYTES = 0x3030303030303030L;
+    private static final long DIGIT_LIMIT = 0x7676767676767676L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long[] POWERS = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000};
+
     private int next;
-    private int length;
-    private int offset;
-    private final byte[] buffer;
-    private final InputStream inputStream;
+    private boolean probed;
+    private boolean binary;
+    private long mapped;
+    private long fileSize;
+    private byte[] array;
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private InputStream inputStream;
 
     public FastReader(InputStream inputStream) {
+        reset(inputStream);
+    }
+
+    public FastReader reset(InputStream inputStream) {
+        this.next = 0;
+        this.probed = false;
+        this.binary = false;
         this.inputStream = inputStream;
-        this.buffer = new byte[1 << 16];
+        this.channel = mappable(inputStream);
+        if (channel == null) {
+            if (array == null) {
+                array = new byte[BUFFER_SIZE];
+            }
+            this.buffer = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.limit(0);
+        }
+        else {
+            this.buffer = ByteBuffer.allocate(0);
+        }
+        return this;
     }
 
-    public int getChar() {
-        while (length == offset) {
-            offset = 0;
+    private FileChannel mappable(InputStream inputStream) {
+        if (inputStream instanceof FileInputStream) {
             try {
-                length = inputStream.read(buffer);
+                FileChannel fileChannel = ((FileInputStream)inputStream).getChannel();
+                mapped = fileChannel.position();
+                fileSize = fileChannel.size();
+                if (fileSize > mapped) {
+                    return fileChannel;
+                }
             }
             catch (IOException e) {
-                e.printStackTrace();
+                return null;
             }
         }
-        return buffer[offset++];
+        return null;
     }
 
-    public int readInt() {
-        boolean positive = true;
+    private boolean refill() {
+        try {
+            if (channel != null) {
+                if (mapped >= fileSize) {
+                    return false;
+                }
+                long length = Math.min(MAP_WINDOW, fileSize - mapped);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length).order(ByteOrder.LITTLE_ENDIAN);
+                mapped += length;
+                return true;
+            }
+            int length = inputStream.read(array);
+            if (length <= 0) {
+                return false;
+            }
+            buffer.limit(length);
+            buffer.position(0);
+            return true;
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private boolean ensure(int size) {
+        if (buffer.remaining() >= size) {
+            return true;
+        }
+        if (channel != null) {
+            return (buffer.hasRemaining() || refill()) && buffer.remaining() >= size;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < size) {
+                int length = inputStream.read(array, buffer.position(), array.length - buffer.position());
+                if (length <= 0) {
+                    break;
+                }
+                buffer.position(buffer.position() + length);
+            }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        finally {
+            buffer.flip();
+        }
+        return buffer.remaining() >= size;
+    }
+
+    public boolean probe() {
+        probed = true;
+        binary = false;
+        if (ensure(OpLog.HEADER_SIZE)) {
+            int position = buffer.position();
+            for (int i = 0; i < OpLog.MAGIC.length; i++) {
+                if (buffer.get(position + i) != OpLog.MAGIC[i]) {
+                    return false;
+                }
+            }
+            if (buffer.get(position + OpLog.MAGIC.length) != OpLog.VERSION) {
+                throw new IllegalStateException("unsupported op-log version " + buffer.get(position + 4));
+            }
+            buffer.position(position + OpLog.HEADER_SIZE);
+            binary = true;
+            next = 0;
+        }
+        return binary;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public boolean isMapped() {
+        return channel != null;
+    }
+
+    public int getChar() {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        return buffer.get() & 0xff;
+    }
+
+    private static long parseDigits(long word) {
+        long value = (word * 10 + (word >>> 8)) & 0x00FF00FF00FF00FFL;
+        value = (value * 100 + (value >>> 16)) & 0x0000FFFF0000FFFFL;
+        return (value * 10000 + (value >>> 32)) & 0xFFFFFFFFL;
+    }
+
+    private long readDigits() {
+        long val = 0;
+        while (next >= '0' && next <= '9') {
+            int start = buffer.position() - 1;
+            if (buffer.limit() - start >= 8) {
+                long word = buffer.getLong(start) ^ ZERO_BYTES;
+                int digits = Long.numberOfTrailingZeros(((word + DIGIT_LIMIT) | word) & HIGH_BITS) >> 3;
+                val = val * POWERS[digits] + parseDigits(word << ((8 - digits) << 3));
+                buffer.position(start + digits);
+            }
+            else {
+                val = val * 10 + next - '0';
+            }
+            next = getChar();
+        }
+        return val;
+    }
+
+    private long readVarLong() throws NoSuchElementException {
+        long raw = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = getChar();
+            if (b == -1) {
+                throw new NoSuchElementException();
+            }
+            raw |= (long)(b & 0x7f) << shift;
+            if (b < 0x80) {
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+    }
+
+    public boolean hasNext() {
+        if (!probed) {
+            probe();
+        }
+        if (binary) {
+            return buffer.hasRemaining() || refill();
+        }
         while (0 <= next && next <= 32) {
             next = getChar();
         }
+        return next != -1;
+    }
+
+    public long readLong() throws NoSuchElementException {
+        if (binary && buffer.remaining() >= VARINT_SIZE) {
+            long raw = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                raw |= (long)(b & 0x7f) << shift;
+                if (b >= 0) {
+                    return (raw >>> 1) ^ -(raw & 1);
+                }
+            }
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (binary) {
+            return readVarLong();
+        }
+        boolean positive = true;
         if (next == '+' || next == '-') {
             positive = next == '+';
             next = getChar();
         }
-        int val = 0;
-        while (next >= '0' && next <= '9') {
-            val = val * 10 + next - '0';
+        long val = readDigits();
+        return positive ? val : -val;
+    }
+
+    public int readInt() throws NoSuchElementException {
+        return (int)readLong();
+    }
+
+    public void readInts(int[] dst, int n) throws NoSuchElementException {
+        for (int i = 0; i < n; i++) {
+            dst[i] = readInt();
+        }
+    }
+
+    public void readLongs(long[] dst, int n) throws NoSuchElementException {
+        for (int i = 0; i < n; i++) {
+            dst[i] = readLong();
+        }
+    }
+
+    public String readLine() throws NoSuchElementException {
+        if (next == 0) {
             next = getChar();
         }
-        return positive ? val : -val;
+        if (next == -1) {
+            throw new NoSuchElementException();
+        }
+        StringBuilder builder = new StringBuilder();
+        while (next != -1 && next != '\n') {
+            if (next != '\r') {
+                builder.append((char)next);
+            }
+            next = getChar();
+        }
+        next = 0;
+        return builder.toString();
+    }
+
+    public String readToken() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StringBuilder builder = new StringBuilder();
+        while (next > 32) {
+            builder.append((char)next);
+            next = getChar();
+        }
+        return builder.toString();
     }
 
     public String asString() {
         StringBuilder builder = new StringBuilder();
-        while (true) {
-            while (length == offset) {
-                offset = 0;
-                try {
-                    length = inputStream.read(buffer);
-                    if (length == -1) {
-                        return builder.toString();
-                    }
-                }
-                catch (IOException e) {
-                    return builder.toString();
-                }
-            }
-            builder.append((char)buffer[offset++]);
+        for (int c = getChar(); c != -1; c = getChar()) {
+            builder.append((char)c);
         }
+        return builder.toString();
     }
 }
\ No newline at end of file
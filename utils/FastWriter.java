@@ -0,0 +1,153 @@
+package utils;
+
+import java.io.Flushable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+
+public class FastWriter implements Flushable, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NUMBER_SIZE = 20;
+
+    private int length;
+    private final byte[] buffer;
+    private final byte[] digits;
+    private OutputStream outputStream;
+    private WritableByteChannel channel;
+
+    public FastWriter(OutputStream outputStream) {
+        this.buffer = new byte[BUFFER_SIZE];
+        this.digits = new byte[NUMBER_SIZE];
+        reset(outputStream);
+    }
+
+    public FastWriter(WritableByteChannel channel) {
+        this.buffer = new byte[BUFFER_SIZE];
+        this.digits = new byte[NUMBER_SIZE];
+        reset(channel);
+    }
+
+    public FastWriter reset(OutputStream outputStream) {
+        this.length = 0;
+        this.channel = null;
+        this.outputStream = outputStream;
+        return this;
+    }
+
+    public FastWriter reset(WritableByteChannel channel) {
+        this.length = 0;
+        this.channel = channel;
+        this.outputStream = null;
+        return this;
+    }
+
+    private void ensure(int size) {
+        if (length + size > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        try {
+            if (channel != null) {
+                ByteBuffer wrap = ByteBuffer.wrap(buffer, 0, length);
+                while (wrap.hasRemaining()) {
+                    channel.write(wrap);
+                }
+            }
+            else {
+                outputStream.write(buffer, 0, length);
+            }
+            length = 0;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public FastWriter writeChar(char c) {
+        ensure(1);
+        buffer[length++] = (byte)c;
+        return this;
+    }
+
+    public FastWriter writeByte(int value) {
+        ensure(1);
+        buffer[length++] = (byte)value;
+        return this;
+    }
+
+    public FastWriter writeVarLong(long value) {
+        ensure(NUMBER_SIZE);
+        long raw = (value << 1) ^ (value >> 63);
+        while ((raw & ~0x7FL) != 0) {
+            buffer[length++] = (byte)((raw & 0x7F) | 0x80);
+            raw >>>= 7;
+        }
+        buffer[length++] = (byte)raw;
+        return this;
+    }
+
+    public FastWriter writeLong(long value) {
+        ensure(NUMBER_SIZE);
+        if (value < 0) {
+            buffer[length++] = '-';
+        }
+        int index = NUMBER_SIZE;
+        long rest = value;
+        do {
+            digits[--index] = (byte)('0' + Math.abs(rest % 10));
+            rest /= 10;
+        } while (rest != 0);
+        System.arraycopy(digits, index, buffer, length, NUMBER_SIZE - index);
+        length += NUMBER_SIZE - index;
+        return this;
+    }
+
+    public FastWriter writeInt(int value) {
+        return writeLong(value);
+    }
+
+    public FastWriter writeString(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            writeChar(value.charAt(i));
+        }
+        return this;
+    }
+
+    public FastWriter newLine() {
+        return writeChar('\n');
+    }
+
+    @Override
+    public void flush() {
+        drain();
+        try {
+            if (outputStream != null) {
+                outputStream.flush();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            else {
+                outputStream.close();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package utils;
+
+public class LatencyHistogram {
+    private long max;
+    private long sum;
+    private long total;
+    private final int precision;
+    private final long[] counts;
+
+    public LatencyHistogram() {
+        this(5);
+    }
+
+    public LatencyHistogram(int precision) {
+        assert 0 < precision && precision < 16;
+        this.precision = precision;
+        this.counts = new long[(65 - precision) << (precision - 1)];
+    }
+
+    private int indexOf(long value) {
+        if (value < (1L << precision)) {
+            return (int)value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - precision;
+        return (shift << (precision - 1)) + (int)(value >>> shift);
+    }
+
+    private long highestOf(int index) {
+        int shift = (index >> (precision - 1)) - 1;
+        if (shift <= 0) {
+            return index;
+        }
+        long mantissa = index - ((long)shift << (precision - 1));
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        long clamp = Math.max(value, 0);
+        counts[indexOf(clamp)]++;
+        max = Math.max(max, clamp);
+        sum += clamp;
+        total++;
+    }
+
+    public void merge(LatencyHistogram other) {
+        assert precision == other.precision;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        max = Math.max(max, other.max);
+        sum += other.sum;
+        total += other.total;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double)sum / total;
+    }
+
+    public long valueAtPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long)Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestOf(i), max);
+            }
+        }
+        return max;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package utils;
+
+public class LatencyRecorder {
+    public static final long SKIPPED = Long.MIN_VALUE;
+
+    private long ticks;
+    private final int sampleMask;
+    private final boolean enabled;
+    private final String[] opcodes;
+    private final LatencyHistogram[] histograms;
+
+    public LatencyRecorder(int sampleRate, String... opcodes) {
+        assert sampleRate > 0 && (sampleRate & (sampleRate - 1)) == 0;
+        this.enabled = true;
+        this.opcodes = opcodes;
+        this.sampleMask = sampleRate - 1;
+        this.histograms = new LatencyHistogram[opcodes.length];
+        for (int i = 0; i < opcodes.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    private LatencyRecorder() {
+        this.sampleMask = 0;
+        this.enabled = false;
+        this.opcodes = new String[0];
+        this.histograms = new LatencyHistogram[0];
+    }
+
+    public static LatencyRecorder disabled() {
+        return new LatencyRecorder();
+    }
+
+    public long start() {
+        if (!enabled || (ticks++ & sampleMask) != 0) {
+            return SKIPPED;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(int opcode, long start) {
+        if (start != SKIPPED) {
+            histograms[opcode].record(System.nanoTime() - start);
+        }
+    }
+
+    public void merge(LatencyRecorder other) {
+        assert opcodes.length == other.opcodes.length;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].merge(other.histograms[i]);
+        }
+    }
+
+    public String format(String title) {
+        StringBuilder builder = new StringBuilder(title).append('\n');
+        builder.append(String.format("%-14s%10s%10s%10s%10s%10s%n"
+                , "opcode(ns)", "samples", "p50", "p99", "p999", "max"));
+        for (int i = 0; i < opcodes.length; i++) {
+            LatencyHistogram histogram = histograms[i];
+            builder.append(String.format("%-14s%10d%10d%10d%10d%10d%n", opcodes[i], histogram.getCount(),
+                    histogram.valueAtPercentile(50), histogram.valueAtPercentile(99),
+                    histogram.valueAtPercentile(99.9), histogram.getMax()));
+        }
+        return builder.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package utils;
+
+import java.util.Arrays;
+
+public class LongLongMap {
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private int size;
+    private int mask;
+    private long[] keys;
+    private long[] values;
+    private boolean hasEmpty;
+    private long emptyValue;
+
+    public LongLongMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expected) - 1) << 2;
+        this.mask = capacity - 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int)(mixed ^ mixed >>> 32);
+    }
+
+    private int slot(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        mask = (keys.length << 1) - 1;
+        keys = new long[keys.length << 1];
+        values = new long[values.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public boolean containsKey(long key) {
+        return key == EMPTY ? hasEmpty : keys[slot(key)] == key;
+    }
+
+    public long get(long key) {
+        if (key == EMPTY) {
+            return emptyValue;
+        }
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            size += hasEmpty ? 0 : 1;
+            hasEmpty = true;
+            emptyValue = value;
+            return;
+        }
+        int slot = slot(key);
+        values[slot] = value;
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size << 1 > keys.length) {
+                grow();
+            }
+        }
+    }
+
+    public long add(long key, long delta) {
+        if (key == EMPTY) {
+            size += hasEmpty ? 0 : 1;
+            hasEmpty = true;
+            return emptyValue += delta;
+        }
+        int slot = slot(key);
+        long value = values[slot] += delta;
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size << 1 > keys.length) {
+                grow();
+            }
+        }
+        return value;
+    }
+
+    public void clear() {
+        size = 0;
+        hasEmpty = false;
+        emptyValue = 0;
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package utils;
+
+public final class OpLog {
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final byte[] MAGIC = {'T', 'T', 'O', 'L'};
+
+    private OpLog() {
+    }
+
+    public static void writeHeader(FastWriter writer) {
+        for (byte b : MAGIC) {
+            writer.writeByte(b);
+        }
+        writer.writeByte(VERSION);
+        for (int i = MAGIC.length + 1; i < HEADER_SIZE; i++) {
+            writer.writeByte(0);
+        }
+    }
+
+    public static long convert(FastReader reader, FastWriter writer) {
+        long count = 0;
+        writeHeader(writer);
+        while (reader.hasNext()) {
+            writer.writeVarLong(reader.readLong());
+            count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
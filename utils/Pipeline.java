@@ -0,0 +1,159 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Pipeline {
+    @FunctionalInterface
+    public interface Decoder {
+        void decode(FastReader reader, int[] ops, int offset);
+    }
+
+    @FunctionalInterface
+    public interface Executor {
+        boolean execute(int[] ops, int offset, long[] results, int slot);
+    }
+
+    private static final class Aborted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Aborted() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final int BATCHES = 64;
+    private static final int BATCH_SIZE = 1 << 10;
+    private static final int SPIN_LIMIT = 1 << 8;
+    private static final long PARK_NANOS = 20000;
+
+    private final int width;
+    private final boolean pipelined;
+    private final AtomicReference<Throwable> failure;
+
+    public Pipeline(int width, boolean pipelined) {
+        this.width = width;
+        this.pipelined = pipelined;
+        this.failure = new AtomicReference<>();
+    }
+
+    private void await(AtomicLong sequence, long target) {
+        int spins = 0;
+        while (sequence.get() < target) {
+            if (failure.get() != null) {
+                throw new Aborted();
+            }
+            if (spins++ < SPIN_LIMIT) {
+                Thread.yield();
+            }
+            else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    private Thread stage(String name, Runnable runnable) {
+        Thread thread = new Thread(() -> {
+            try {
+                runnable.run();
+            }
+            catch (Aborted e) {
+                return;
+            }
+            catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void sequential(FastReader reader, int total, Decoder decoder, Executor executor, FastWriter writer) {
+        int[] ops = new int[width];
+        long[] results = new long[1];
+        for (int i = 0; i < total; i++) {
+            decoder.decode(reader, ops, 0);
+            if (executor.execute(ops, 0, results, 0)) {
+                writer.writeLong(results[0]).newLine();
+            }
+        }
+    }
+
+    public void run(FastReader reader, int total, Decoder decoder, Executor executor, FastWriter writer) {
+        if (!pipelined) {
+            sequential(reader, total, decoder, executor, writer);
+            return;
+        }
+        int batches = (total + BATCH_SIZE - 1) / BATCH_SIZE;
+        int[][] ops = new int[BATCHES][BATCH_SIZE * width];
+        long[][] results = new long[BATCHES][BATCH_SIZE];
+        int[] produced = new int[BATCHES];
+        AtomicLong parsed = new AtomicLong();
+        AtomicLong executed = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        failure.set(null);
+        Thread parser = stage("pipeline-parser", () -> {
+            for (int i = 0; i < batches; i++) {
+                await(written, i - BATCHES + 1);
+                int[] batch = ops[i & (BATCHES - 1)];
+                int count = Math.min(BATCH_SIZE, total - i * BATCH_SIZE);
+                for (int j = 0; j < count; j++) {
+                    decoder.decode(reader, batch, j * width);
+                }
+                parsed.set(i + 1);
+            }
+        });
+        Thread printer = stage("pipeline-printer", () -> {
+            for (int i = 0; i < batches; i++) {
+                await(executed, i + 1);
+                long[] batch = results[i & (BATCHES - 1)];
+                for (int j = 0; j < produced[i & (BATCHES - 1)]; j++) {
+                    writer.writeLong(batch[j]).newLine();
+                }
+                written.set(i + 1);
+            }
+        });
+        try {
+            for (int i = 0; i < batches; i++) {
+                await(parsed, i + 1);
+                int[] batch = ops[i & (BATCHES - 1)];
+                long[] result = results[i & (BATCHES - 1)];
+                int count = Math.min(BATCH_SIZE, total - i * BATCH_SIZE);
+                int slot = 0;
+                for (int j = 0; j < count; j++) {
+                    if (executor.execute(batch, j * width, result, slot)) {
+                        slot++;
+                    }
+                }
+                produced[i & (BATCHES - 1)] = slot;
+                executed.set(i + 1);
+            }
+        }
+        catch (Aborted e) {
+            assert failure.get() != null;
+        }
+        catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+        try {
+            parser.join();
+            printer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error)cause;
+        }
+        if (cause != null) {
+            throw new IllegalStateException(cause);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package utils;
+
+public interface RangeTree {
+    void update(int leftRange, int rightRange, long value);
+
+    long query(int leftRange, int rightRange);
+}
\ No newline at end of file